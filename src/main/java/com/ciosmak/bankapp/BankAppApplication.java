@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * BankAppApplication is the main class of the bank application. It is responsible for starting the Spring Boot application,
@@ -18,9 +19,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @see org.springframework.boot.CommandLineRunner
  * @see org.springframework.boot.SpringApplication
  * @see org.springframework.boot.autoconfigure.SpringBootApplication
+ * @see com.ciosmak.bankapp.settlement.SettlementScheduler
  */
 @Slf4j
 @RequiredArgsConstructor
+@EnableScheduling
 @SpringBootApplication
 public class BankAppApplication implements CommandLineRunner
 {
@@ -45,8 +48,8 @@ public class BankAppApplication implements CommandLineRunner
     @Override
     public void run(String[] args)
     {
-        Menu.loginMenu(userService, identityDocumentService, bankAccountService, paymentCardService, transferService);
-        Menu.mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+        Menu.loginMenu(userService, identityDocumentService, bankAccountService, paymentCardService);
+        Menu.mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
     }
 
     /**
@@ -88,4 +91,9 @@ public class BankAppApplication implements CommandLineRunner
      * Represents an instance of HistoryService class
      */
     private final HistoryService historyService;
+
+    /**
+     * Represents an instance of StandingOrderService class
+     */
+    private final StandingOrderService standingOrderService;
 }
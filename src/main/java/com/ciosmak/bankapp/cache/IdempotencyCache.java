@@ -0,0 +1,109 @@
+package com.ciosmak.bankapp.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The IdempotencyCache class remembers which transfer was created for a given idempotency key, so a repeated submission can be answered without touching the database.
+ * The cache is bounded, when it is full the oldest key is evicted, and every key expires after the configured time to live.
+ * Evicted or expired keys are still protected by the unique idempotency key column of the transfers table, the cache only keeps the common case off the database.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.Transfer
+ */
+@Component
+public class IdempotencyCache
+{
+    /**
+     * Creates the cache.
+     *
+     * @param maximumSize the maximum number of remembered keys
+     * @param timeToLive  the time in milliseconds after which a key expires
+     */
+    public IdempotencyCache(@Value("${bank.idempotency.cache-size}") int maximumSize, @Value("${bank.idempotency.time-to-live}") long timeToLive)
+    {
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+            {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the id of the transfer created for the given idempotency key.
+     *
+     * @param idempotencyKey the idempotency key
+     * @return the id of the transfer or null if the key is not known or has expired
+     */
+    public synchronized Long get(String idempotencyKey)
+    {
+        Entry entry = entries.get(idempotencyKey);
+        if (entry == null)
+        {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis())
+        {
+            entries.remove(idempotencyKey);
+            return null;
+        }
+        return entry.transferId;
+    }
+
+    /**
+     * Remembers the transfer created for the given idempotency key.
+     *
+     * @param idempotencyKey the idempotency key
+     * @param transferId     the id of the transfer
+     */
+    public synchronized void put(String idempotencyKey, Long transferId)
+    {
+        entries.put(idempotencyKey, new Entry(transferId, System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * A remembered transfer together with the time at which it expires.
+     */
+    private static final class Entry
+    {
+        /**
+         * Creates the entry.
+         *
+         * @param transferId the id of the transfer
+         * @param expiresAt  the time in milliseconds at which the entry expires
+         */
+        private Entry(Long transferId, long expiresAt)
+        {
+            this.transferId = transferId;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * The id of the transfer.
+         */
+        private final Long transferId;
+
+        /**
+         * The time in milliseconds at which the entry expires.
+         */
+        private final long expiresAt;
+    }
+
+    /**
+     * The remembered keys in the order of insertion.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * The time in milliseconds after which a key expires.
+     */
+    private final long timeToLive;
+}
@@ -0,0 +1,308 @@
+package com.ciosmak.bankapp.calendar;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The PostingCalendar class knows on which days the bank settles transfers.
+ * A business day is a working day which is neither a Polish public holiday nor one of the additional closures from the configuration; the bank also does not settle on Christmas Eve since it became a public holiday in 2025.
+ * The business days of a year are computed the first time a day of that year is needed and cached as a bitset of six longs per year, one bit per day of the year, so the calendar has no fixed range of years.
+ * Checking a day and finding the next business day only read these bits, so they take constant time and do not compute any holidays once the year is cached.
+ * The cached years are held in an array indexed by the year, so reading the bits of a cached year neither boxes the year nor allocates anything.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ */
+@Component
+public class PostingCalendar
+{
+    /**
+     * Creates the calendar with the given additional closures. The business days are computed later, for every year when it is first needed.
+     *
+     * @param extraClosures the additional days on which the bank is closed, in the ISO format, for example 2026-11-10
+     */
+    public PostingCalendar(@Value("${bank.calendar.extra-closures}") String[] extraClosures)
+    {
+        for (String extraClosure : extraClosures)
+        {
+            if (!extraClosure.isBlank())
+            {
+                this.extraClosures.add(LocalDate.parse(extraClosure.trim()));
+            }
+        }
+    }
+
+    /**
+     * Checks if the bank settles transfers on the given day.
+     *
+     * @param date the day to be checked
+     * @return true if the day is a business day, false otherwise
+     */
+    public boolean isBusinessDay(LocalDate date)
+    {
+        return isSet(getDays(date.getYear()), date.getDayOfYear());
+    }
+
+    /**
+     * Returns the first business day on or after the given day.
+     *
+     * @param date the day from which the business day is searched
+     * @return the given day if it is a business day, the next business day otherwise
+     */
+    public LocalDate getBusinessDayOnOrAfter(LocalDate date)
+    {
+        int year = date.getYear();
+        int dayOfYear = date.getDayOfYear();
+        while (true)
+        {
+            long[] days = getDays(year);
+            int word = (dayOfYear - 1) >>> 6;
+            long bits = days[word] & (-1L << ((dayOfYear - 1) & 63));
+            while (bits == 0 && ++word < WORDS_PER_YEAR)
+            {
+                bits = days[word];
+            }
+            if (bits != 0)
+            {
+                return LocalDate.ofYearDay(year, (word << 6) + Long.numberOfTrailingZeros(bits) + 1);
+            }
+            ++year;
+            dayOfYear = 1;
+        }
+    }
+
+    /**
+     * Returns the posting date of a transfer, that is the next settlement session after the execution date.
+     * The sessions are at 12:00 and 16:00 on business days. A transfer made after the last session of a day or on a day which is not a business day is posted at 12:00 on the next business day.
+     *
+     * @param executionDate the execution date of the transfer
+     * @return the posting date of the transfer
+     */
+    public LocalDateTime getPostingDate(LocalDateTime executionDate)
+    {
+        LocalDate executionDay = executionDate.toLocalDate();
+        if (isBusinessDay(executionDay))
+        {
+            if (executionDate.getHour() < FIRST_SESSION_HOUR)
+            {
+                return executionDay.atTime(FIRST_SESSION_HOUR, 0);
+            }
+            if (executionDate.getHour() < LAST_SESSION_HOUR)
+            {
+                return executionDay.atTime(LAST_SESSION_HOUR, 0);
+            }
+            return getBusinessDayOnOrAfter(executionDay.plusDays(1)).atTime(FIRST_SESSION_HOUR, 0);
+        }
+        return getBusinessDayOnOrAfter(executionDay).atTime(FIRST_SESSION_HOUR, 0);
+    }
+
+    /**
+     * Returns the Polish public holidays of the given year which are relevant for the bank.
+     * Easter Sunday and Pentecost are always on Sunday, so only Easter Monday and Corpus Christi are computed from the date of Easter.
+     *
+     * @param year the year
+     * @return the public holidays of the year
+     */
+    private static List<LocalDate> getHolidays(int year)
+    {
+        LocalDate easter = getEasterSunday(year);
+        ArrayList<LocalDate> holidays = new ArrayList<>(List.of(
+                LocalDate.of(year, 1, 1),
+                LocalDate.of(year, 1, 6),
+                easter.plusDays(1),
+                LocalDate.of(year, 5, 1),
+                LocalDate.of(year, 5, 3),
+                easter.plusDays(60),
+                LocalDate.of(year, 8, 15),
+                LocalDate.of(year, 11, 1),
+                LocalDate.of(year, 11, 11),
+                LocalDate.of(year, 12, 25),
+                LocalDate.of(year, 12, 26)));
+        if (year >= FIRST_YEAR_OF_CHRISTMAS_EVE_HOLIDAY)
+        {
+            holidays.add(LocalDate.of(year, 12, 24));
+        }
+        return holidays;
+    }
+
+    /**
+     * Computes the date of Easter Sunday in the Gregorian calendar with the anonymous Gregorian algorithm.
+     *
+     * @param year the year
+     * @return the date of Easter Sunday
+     */
+    private static LocalDate getEasterSunday(int year)
+    {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Returns the bits of the business days of the given year, computing them if the year is needed for the first time.
+     *
+     * @param year the year
+     * @return the bits of the business days, one bit per day of the year
+     */
+    private long[] getDays(int year)
+    {
+        long[][] years = businessDays;
+        int index = year - FIRST_YEAR;
+        if (index >= 0 && index < years.length && years[index] != null)
+        {
+            return years[index];
+        }
+        return addDays(year);
+    }
+
+    /**
+     * Computes the bits of the business days of the given year and publishes them in a copy of the array of the cached years, unless another thread has already done it.
+     * The array is copied every time a year is added, which happens once per year, so the arrays seen by the readers are never modified.
+     *
+     * @param year the year
+     * @return the bits of the business days, one bit per day of the year
+     * @throws IllegalArgumentException if the year is before the first year of the calendar
+     */
+    private synchronized long[] addDays(int year)
+    {
+        if (year < FIRST_YEAR)
+        {
+            throw new IllegalArgumentException("The posting calendar starts in " + FIRST_YEAR + ", the year " + year + " is not supported");
+        }
+        int index = year - FIRST_YEAR;
+        long[][] years = businessDays;
+        if (index < years.length && years[index] != null)
+        {
+            return years[index];
+        }
+        long[][] newYears = Arrays.copyOf(years, Math.max(years.length, index + 1));
+        newYears[index] = computeDays(year);
+        businessDays = newYears;
+        return newYears[index];
+    }
+
+    /**
+     * Computes the bits of the business days of the given year: the working days without the public holidays and the additional closures.
+     *
+     * @param year the year
+     * @return the bits of the business days, one bit per day of the year
+     */
+    private long[] computeDays(int year)
+    {
+        long[] days = new long[WORDS_PER_YEAR];
+        for (LocalDate date = LocalDate.of(year, 1, 1); date.getYear() == year; date = date.plusDays(1))
+        {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY)
+            {
+                set(days, date.getDayOfYear());
+            }
+        }
+        for (LocalDate holiday : getHolidays(year))
+        {
+            clear(days, holiday.getDayOfYear());
+        }
+        for (LocalDate extraClosure : extraClosures)
+        {
+            if (extraClosure.getYear() == year)
+            {
+                clear(days, extraClosure.getDayOfYear());
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Marks a day of the year as a business day.
+     *
+     * @param days      the bits of the business days of the year
+     * @param dayOfYear the day of the year, starting from 1
+     */
+    private static void set(long[] days, int dayOfYear)
+    {
+        days[(dayOfYear - 1) >>> 6] |= 1L << ((dayOfYear - 1) & 63);
+    }
+
+    /**
+     * Marks a day of the year as a day on which the bank is closed.
+     *
+     * @param days      the bits of the business days of the year
+     * @param dayOfYear the day of the year, starting from 1
+     */
+    private static void clear(long[] days, int dayOfYear)
+    {
+        days[(dayOfYear - 1) >>> 6] &= ~(1L << ((dayOfYear - 1) & 63));
+    }
+
+    /**
+     * Checks if a day of the year is a business day.
+     *
+     * @param days      the bits of the business days of the year
+     * @param dayOfYear the day of the year, starting from 1
+     * @return true if the day is a business day, false otherwise
+     */
+    private static boolean isSet(long[] days, int dayOfYear)
+    {
+        return (days[(dayOfYear - 1) >>> 6] & (1L << ((dayOfYear - 1) & 63))) != 0;
+    }
+
+    /**
+     * The hour of the first settlement session of a business day.
+     */
+    public static final int FIRST_SESSION_HOUR = 12;
+
+    /**
+     * The hour of the last settlement session of a business day.
+     */
+    public static final int LAST_SESSION_HOUR = 16;
+
+    /**
+     * The first whole year of the Gregorian calendar, for which the date of Easter can be computed.
+     */
+    private static final int FIRST_YEAR = 1583;
+
+    /**
+     * The first year in which Christmas Eve is a public holiday.
+     */
+    private static final int FIRST_YEAR_OF_CHRISTMAS_EVE_HOLIDAY = 2025;
+
+    /**
+     * The number of days of a leap year.
+     */
+    private static final int DAYS_IN_LEAP_YEAR = 366;
+
+    /**
+     * The number of longs needed to hold one bit for every day of a leap year.
+     */
+    private static final int WORDS_PER_YEAR = (DAYS_IN_LEAP_YEAR + 63) / 64;
+
+    /**
+     * The additional days on which the bank is closed.
+     */
+    private final Set<LocalDate> extraClosures = new HashSet<>();
+
+    /**
+     * The bits of the business days of the years computed so far, one array per year at the index of the year counted from the first year of the calendar, null for the years not computed yet.
+     */
+    private volatile long[][] businessDays = new long[0][];
+}
@@ -0,0 +1,161 @@
+package com.ciosmak.bankapp.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The AccountLockManager class serializes the balance changes of a bank account within the application without waiting for database row locks.
+ * Bank account numbers are mapped onto a fixed number of lock stripes, so the memory used does not depend on the number of bank accounts and unrelated bank accounts usually fall on different stripes and proceed in parallel.
+ * When several bank accounts are locked together, their stripes are always acquired in ascending order, which rules out deadlocks between transfers touching the same bank accounts in the opposite direction.
+ * The number of acquisitions, contentions and the waiting time are counted for every stripe.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see LockStripeStatistics
+ */
+@Component
+public class AccountLockManager
+{
+    /**
+     * Creates the lock manager.
+     *
+     * @param numberOfStripes the requested number of lock stripes, rounded up to a power of two
+     */
+    public AccountLockManager(@Value("${bank.concurrency.lock-stripes}") int numberOfStripes)
+    {
+        int size = Integer.highestOneBit(Math.max(1, numberOfStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; ++i)
+        {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.acquisitions = new AtomicLongArray(size);
+        this.contentions = new AtomicLongArray(size);
+        this.waitTimes = new AtomicLongArray(size);
+    }
+
+    /**
+     * Returns the stripe guarding the given bank account.
+     *
+     * @param bankAccountNumber the bank account number
+     * @return the number of the stripe
+     */
+    public int getStripe(String bankAccountNumber)
+    {
+        int hash = bankAccountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the number of lock stripes.
+     *
+     * @return the number of lock stripes
+     */
+    public int getNumberOfStripes()
+    {
+        return stripes.length;
+    }
+
+    /**
+     * Locks the stripes of the given bank accounts in ascending order, calls the action and releases the stripes in the reverse order, also when the action throws an exception.
+     *
+     * @param bankAccountNumbers the bank account numbers to lock
+     * @param action             the action to call while the stripes are held
+     * @param <T>                the type of the result of the action
+     * @return the result of the action
+     */
+    public <T> T callWithLocks(Collection<String> bankAccountNumbers, Supplier<T> action)
+    {
+        int[] stripesToLock = new int[bankAccountNumbers.size()];
+        int i = 0;
+        for (var bankAccountNumber : bankAccountNumbers)
+        {
+            stripesToLock[i++] = getStripe(bankAccountNumber);
+        }
+        int[] orderedStripes = Arrays.stream(stripesToLock).sorted().distinct().toArray();
+
+        int acquiredStripes = 0;
+        try
+        {
+            for (; acquiredStripes < orderedStripes.length; ++acquiredStripes)
+            {
+                acquire(orderedStripes[acquiredStripes]);
+            }
+            return action.get();
+        }
+        finally
+        {
+            for (int j = acquiredStripes - 1; j >= 0; --j)
+            {
+                stripes[orderedStripes[j]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the contention statistics of all the stripes.
+     *
+     * @return the statistics of every stripe
+     */
+    public List<LockStripeStatistics> getStatistics()
+    {
+        List<LockStripeStatistics> statistics = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; ++i)
+        {
+            statistics.add(new LockStripeStatistics(i, acquisitions.get(i), contentions.get(i), waitTimes.get(i)));
+        }
+        return statistics;
+    }
+
+    /**
+     * Locks a single stripe and records its statistics.
+     *
+     * @param stripe the number of the stripe
+     */
+    private void acquire(int stripe)
+    {
+        ReentrantLock lock = stripes[stripe];
+        if (!lock.tryLock())
+        {
+            contentions.incrementAndGet(stripe);
+            long start = System.nanoTime();
+            lock.lock();
+            waitTimes.addAndGet(stripe, System.nanoTime() - start);
+        }
+        acquisitions.incrementAndGet(stripe);
+    }
+
+    /**
+     * The lock stripes.
+     */
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Mask selecting the stripe from a hash, the number of stripes is a power of two.
+     */
+    private final int mask;
+
+    /**
+     * Number of acquisitions of every stripe.
+     */
+    private final AtomicLongArray acquisitions;
+
+    /**
+     * Number of contended acquisitions of every stripe.
+     */
+    private final AtomicLongArray contentions;
+
+    /**
+     * Total waiting time in nanoseconds of every stripe.
+     */
+    private final AtomicLongArray waitTimes;
+}
@@ -0,0 +1,34 @@
+package com.ciosmak.bankapp.concurrency;
+
+import lombok.Value;
+
+/**
+ * The LockStripeStatistics class holds the contention statistics of a single lock stripe of the {@link AccountLockManager}.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see AccountLockManager
+ */
+@Value
+public class LockStripeStatistics
+{
+    /**
+     * Number of the stripe.
+     */
+    int stripe;
+
+    /**
+     * Number of times the stripe was locked.
+     */
+    long acquisitions;
+
+    /**
+     * Number of times the stripe was already locked by another thread and the caller had to wait.
+     */
+    long contentions;
+
+    /**
+     * Total time in nanoseconds spent waiting for the stripe.
+     */
+    long waitTime;
+}
@@ -0,0 +1,168 @@
+package com.ciosmak.bankapp.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The OptimisticRetryExecutor class runs balance mutations under optimistic locking.
+ * Every attempt runs in a new transaction. When the transaction fails because another transaction has changed the same versioned row in the meantime, the whole attempt is repeated with freshly loaded data, up to the configured number of attempts.
+ * The same applies to a transaction which lost the race to insert a row created on first use, such as the monthly totals of a bank account, since the repeated attempt finds the row inserted by the other transaction.
+ * The number of detected conflicts and of performed retries is counted for monitoring.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.BankAccount
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor
+{
+    /**
+     * Creates the executor.
+     *
+     * @param transactionManager the transaction manager used to start a new transaction for every attempt
+     */
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager)
+    {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Runs the given action in a new transaction and repeats it when an optimistic locking conflict or a lost insert race occurs.
+     *
+     * @param action the action to run, it has to load all the data it changes by itself, so a retry sees the current state
+     * @param <T>    the type of the result of the action
+     * @return the result of the action
+     * @throws OptimisticLockingFailureException if the conflict persists after the last attempt
+     * @throws DataIntegrityViolationException   if the lost insert race persists after the last attempt, or at once for any other violation
+     */
+    public <T> T execute(Supplier<T> action)
+    {
+        int attempt = 1;
+        while (true)
+        {
+            try
+            {
+                return transactionTemplate.execute(status -> action.get());
+            }
+            catch (OptimisticLockingFailureException | DataIntegrityViolationException e)
+            {
+                if (e instanceof DataIntegrityViolationException && !isLostInsertRace(e))
+                {
+                    throw e;
+                }
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts)
+                {
+                    log.warn("Optimistic locking conflict not resolved after {} attempts", attempt);
+                    throw e;
+                }
+                retries.incrementAndGet();
+                backOff(attempt);
+                attempt++;
+            }
+        }
+    }
+
+    /**
+     * Checks if the violation was caused by one of the unique constraints of the rows created on first use, which means that another transaction has inserted the same row in the meantime.
+     *
+     * @param e the violation
+     * @return true if the attempt lost an insert race and can be repeated, false otherwise
+     */
+    private boolean isLostInsertRace(Exception e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof ConstraintViolationException constraintViolationException && constraintViolationException.getConstraintName() != null)
+            {
+                String constraintName = constraintViolationException.getConstraintName().toUpperCase(Locale.ROOT);
+                return INSERT_RACE_CONSTRAINTS.stream().anyMatch(constraintName::contains);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of optimistic locking conflicts and lost insert races detected so far.
+     *
+     * @return the number of conflicts
+     */
+    public long getConflicts()
+    {
+        return conflicts.get();
+    }
+
+    /**
+     * Returns the number of retries performed so far.
+     *
+     * @return the number of retries
+     */
+    public long getRetries()
+    {
+        return retries.get();
+    }
+
+    /**
+     * Waits before the next attempt, longer with every attempt, so the conflicting transactions do not collide again right away.
+     *
+     * @param attempt the number of the failed attempt
+     */
+    private void backOff(int attempt)
+    {
+        try
+        {
+            Thread.sleep(retryBackoff * attempt);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a retry", e);
+        }
+    }
+
+    /**
+     * Names of the unique constraints of the rows created on first use, whose violation means a lost insert race.
+     */
+    private static final List<String> INSERT_RACE_CONSTRAINTS = List.of("UK_MONTHLY_ROLLUPS_BANK_ACCOUNT_NUMBER_BOOKING_MONTH");
+
+    /**
+     * transactionTemplate starts a new transaction for every attempt.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of optimistic locking conflicts and lost insert races detected so far.
+     */
+    private final AtomicLong conflicts = new AtomicLong();
+
+    /**
+     * Number of retries performed so far.
+     */
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * maxAttempts is the maximum number of attempts of a single action.
+     */
+    @Value("${bank.concurrency.max-attempts}")
+    private int maxAttempts;
+
+    /**
+     * retryBackoff is the time in milliseconds to wait after the first failed attempt, it grows linearly with the next attempts.
+     */
+    @Value("${bank.concurrency.retry-backoff}")
+    private long retryBackoff;
+}
@@ -0,0 +1,213 @@
+package com.ciosmak.bankapp.dashboard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The DashboardCache class remembers the desktop summary of every user, so opening the desktop again during a session does not query the database.
+ * The cache is bounded, when it is full the least recently used summary is evicted, and every summary expires after the configured time to live or when the month changes.
+ * A summary is invalidated when a {@link UserDataChangedEvent} of its user is committed. A summary loaded while a change was being committed could miss the change, so a loaded summary is only remembered if no summary was invalidated while it was loaded.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see DashboardSummary
+ */
+@Component
+public class DashboardCache
+{
+    /**
+     * Creates the cache.
+     *
+     * @param maximumSize the maximum number of remembered summaries
+     * @param timeToLive  the time in milliseconds after which a summary expires
+     */
+    public DashboardCache(@Value("${bank.dashboard.cache-size}") int maximumSize, @Value("${bank.dashboard.time-to-live}") long timeToLive)
+    {
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest)
+            {
+                if (size() > maximumSize)
+                {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the summary of the user in the given month, loading it with the given loader if it is not remembered.
+     * The loader is called without holding the lock of the cache.
+     *
+     * @param userId the id of the user
+     * @param month  the month of the expenses and the income of the summary
+     * @param loader the loader of the summary
+     * @return the summary of the user
+     */
+    public DashboardSummary get(Long userId, YearMonth month, Supplier<DashboardSummary> loader)
+    {
+        long generationBeforeLoad;
+        synchronized (this)
+        {
+            Entry entry = entries.get(userId);
+            if (entry != null)
+            {
+                if (entry.month.equals(month) && entry.expiresAt >= System.currentTimeMillis())
+                {
+                    hits++;
+                    return entry.summary;
+                }
+                entries.remove(userId);
+                evictions++;
+            }
+            misses++;
+            generationBeforeLoad = generation;
+        }
+
+        DashboardSummary summary = loader.get();
+        synchronized (this)
+        {
+            if (generation == generationBeforeLoad)
+            {
+                entries.put(userId, new Entry(summary, month, System.currentTimeMillis() + timeToLive));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Forgets the summary of the user whose data has changed. The method is called after the transaction making the change is committed, or at once if the change was made outside of a transaction.
+     *
+     * @param userDataChangedEvent the event of the change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onUserDataChanged(UserDataChangedEvent userDataChangedEvent)
+    {
+        generation++;
+        if (entries.remove(userDataChangedEvent.getUserId()) != null)
+        {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Returns the number of summaries returned from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns the number of summaries which had to be loaded.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns the number of summaries evicted because the cache was full, they expired or their month has passed.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of summaries forgotten because the data of their users has changed.
+     *
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    /**
+     * A remembered summary together with its month and the time at which it expires.
+     */
+    private static final class Entry
+    {
+        /**
+         * Creates the entry.
+         *
+         * @param summary   the summary
+         * @param month     the month of the summary
+         * @param expiresAt the time in milliseconds at which the entry expires
+         */
+        private Entry(DashboardSummary summary, YearMonth month, long expiresAt)
+        {
+            this.summary = summary;
+            this.month = month;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * The summary.
+         */
+        private final DashboardSummary summary;
+
+        /**
+         * The month of the summary.
+         */
+        private final YearMonth month;
+
+        /**
+         * The time in milliseconds at which the entry expires.
+         */
+        private final long expiresAt;
+    }
+
+    /**
+     * The remembered summaries by the ids of their users, from the least to the most recently used.
+     */
+    private final LinkedHashMap<Long, Entry> entries;
+
+    /**
+     * The time in milliseconds after which a summary expires.
+     */
+    private final long timeToLive;
+
+    /**
+     * The number of invalidations so far, used to detect an invalidation made while a summary was loaded.
+     */
+    private long generation;
+
+    /**
+     * The number of summaries returned from the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of summaries which had to be loaded.
+     */
+    private long misses;
+
+    /**
+     * The number of summaries evicted because the cache was full, they expired or their month has passed.
+     */
+    private long evictions;
+
+    /**
+     * The number of summaries forgotten because the data of their users has changed.
+     */
+    private long invalidations;
+}
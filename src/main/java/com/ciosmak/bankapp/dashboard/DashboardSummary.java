@@ -0,0 +1,49 @@
+package com.ciosmak.bankapp.dashboard;
+
+import java.math.BigDecimal;
+
+/**
+ * The DashboardSummary interface is a projection of the figures shown on the desktop of a user.
+ * All figures are computed by one aggregate query over the bank accounts of the user, their payment cards and their monthly totals.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.repository.BankAccountRepository#findDashboardSummary(Long, Integer)
+ */
+public interface DashboardSummary
+{
+    /**
+     * Returns the total balance of the open bank accounts of the user.
+     *
+     * @return the total balance
+     */
+    BigDecimal getBalance();
+
+    /**
+     * Returns the expenses of the user in the month of the summary.
+     *
+     * @return the expenses
+     */
+    BigDecimal getExpenses();
+
+    /**
+     * Returns the income of the user in the month of the summary.
+     *
+     * @return the income
+     */
+    BigDecimal getIncome();
+
+    /**
+     * Returns the number of open bank accounts of the user.
+     *
+     * @return the number of open bank accounts
+     */
+    Long getNumberOfOpenBankAccounts();
+
+    /**
+     * Returns the number of payment cards of the user which are not blocked permanently.
+     *
+     * @return the number of payment cards which are not blocked permanently
+     */
+    Long getNumberOfActivePaymentCards();
+}
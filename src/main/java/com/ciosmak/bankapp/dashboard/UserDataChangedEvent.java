@@ -0,0 +1,20 @@
+package com.ciosmak.bankapp.dashboard;
+
+import lombok.Value;
+
+/**
+ * The UserDataChangedEvent class is published when a change of the figures shown on the desktop of a user is made: a change of the balance of a bank account, a new bank account or a permanently blocked payment card.
+ * The event is handled after the transaction making the change is committed, so a rolled back change does not invalidate anything.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see DashboardCache
+ */
+@Value
+public class UserDataChangedEvent
+{
+    /**
+     * Id of the user whose data has changed.
+     */
+    Long userId;
+}
@@ -13,7 +13,8 @@ public class AbstractEntity
     @EqualsAndHashCode.Include
     @ToString.Include
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entity_sequence")
+    @SequenceGenerator(name = "entity_sequence", sequenceName = "entity_sequence", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long id;
 }
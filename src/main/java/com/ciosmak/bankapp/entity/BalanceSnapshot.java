@@ -0,0 +1,34 @@
+package com.ciosmak.bankapp.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(onlyExplicitlyIncluded = true)
+
+@Entity
+@Table(name = "balance_snapshots", indexes = {@Index(name = "idx_balance_snapshots_bank_account_number_snapshot_date", columnList = "bank_account_number, snapshot_date")})
+public class BalanceSnapshot extends AbstractEntity
+{
+    @ToString.Include
+    @Column(name = "bank_account_number", length = 26, nullable = false, updatable = false)
+    private String bankAccountNumber;
+
+    @ToString.Include
+    @Column(name = "balance", scale = 2, nullable = false, updatable = false)
+    private BigDecimal balance;
+
+    @ToString.Include
+    @Column(name = "snapshot_date", columnDefinition = "TIMESTAMP", nullable = false, updatable = false)
+    private LocalDateTime snapshotDate;
+
+    @Column(name = "last_sequence_number", nullable = false, updatable = false)
+    private Long lastSequenceNumber;
+}
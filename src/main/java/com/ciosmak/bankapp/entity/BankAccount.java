@@ -1,11 +1,10 @@
 package com.ciosmak.bankapp.entity;
 
+import com.ciosmak.bankapp.money.converter.MinorUnitsConverter;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 
 @Data
 @Builder
@@ -18,8 +17,9 @@ import java.util.List;
 @Table(name = "bank_accounts")
 public class BankAccount extends AbstractEntity
 {
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "balance", scale = 2, nullable = false)
-    private BigDecimal balance;
+    private long balance;
 
     @ToString.Include
     @Column(name = "bank_account_number", length = 26, nullable = false, unique = true)
@@ -50,11 +50,14 @@ public class BankAccount extends AbstractEntity
     @JoinColumn(name = "payment_card_id")
     private PaymentCard paymentCard;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH})
-    @JoinTable(name = "transfers_bank_accounts", joinColumns = {@JoinColumn(name = "bank_account_id")}, inverseJoinColumns = {@JoinColumn(name = "transfer_id")})
-    private List<Transfer> transfers = new ArrayList<>();
-
     @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinColumn(name = "user_id")
     private User user;
+
+    @Column(name = "ledger_sequence", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long ledgerSequence;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
 }
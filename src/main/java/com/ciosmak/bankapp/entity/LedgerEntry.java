@@ -0,0 +1,44 @@
+package com.ciosmak.bankapp.entity;
+
+import com.ciosmak.bankapp.ledger.LedgerEntryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(onlyExplicitlyIncluded = true)
+
+@Entity
+@Table(name = "ledger_entries", indexes = {@Index(name = "idx_ledger_entries_bank_account_number_sequence_number", columnList = "bank_account_number, sequence_number", unique = true)})
+public class LedgerEntry extends AbstractEntity
+{
+    @ToString.Include
+    @Column(name = "bank_account_number", length = 26, nullable = false, updatable = false)
+    private String bankAccountNumber;
+
+    @ToString.Include
+    @Column(name = "sequence_number", nullable = false, updatable = false)
+    private Long sequenceNumber;
+
+    @ToString.Include
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 6, nullable = false, updatable = false)
+    private LedgerEntryType type;
+
+    @ToString.Include
+    @Column(name = "amount_of_money", scale = 2, nullable = false, updatable = false)
+    private BigDecimal amountOfMoney;
+
+    @ToString.Include
+    @Column(name = "booking_date", columnDefinition = "TIMESTAMP", nullable = false, updatable = false)
+    private LocalDateTime bookingDate;
+
+    @Column(name = "transfer_id", updatable = false)
+    private Long transferId;
+}
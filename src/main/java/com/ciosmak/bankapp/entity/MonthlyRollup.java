@@ -0,0 +1,39 @@
+package com.ciosmak.bankapp.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(onlyExplicitlyIncluded = true)
+
+@Entity
+@Table(name = "monthly_rollups", uniqueConstraints = {@UniqueConstraint(name = "uk_monthly_rollups_bank_account_number_booking_month", columnNames = {"bank_account_number", "booking_month"})},
+        indexes = {@Index(name = "idx_monthly_rollups_booking_month", columnList = "booking_month, bank_account_number")})
+public class MonthlyRollup extends AbstractEntity
+{
+    @ToString.Include
+    @Column(name = "bank_account_number", length = 26, nullable = false, updatable = false)
+    private String bankAccountNumber;
+
+    @ToString.Include
+    @Column(name = "booking_month", nullable = false, updatable = false)
+    private Integer bookingMonth;
+
+    @ToString.Include
+    @Column(name = "debits", scale = 2, nullable = false)
+    private BigDecimal debits;
+
+    @ToString.Include
+    @Column(name = "credits", scale = 2, nullable = false)
+    private BigDecimal credits;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+}
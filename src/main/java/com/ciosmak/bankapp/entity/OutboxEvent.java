@@ -0,0 +1,38 @@
+package com.ciosmak.bankapp.entity;
+
+import com.ciosmak.bankapp.outbox.OutboxEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(onlyExplicitlyIncluded = true)
+
+@Entity
+@Table(name = "outbox_events", indexes = {@Index(name = "idx_outbox_events_published_id", columnList = "published, id"), @Index(name = "idx_outbox_events_published_creation_date", columnList = "published, creation_date")})
+public class OutboxEvent extends AbstractEntity
+{
+    @ToString.Include
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 32, nullable = false, updatable = false)
+    private OutboxEventType type;
+
+    @ToString.Include
+    @Column(name = "bank_account_number", length = 26, nullable = false, updatable = false)
+    private String bankAccountNumber;
+
+    @ToString.Include
+    @Column(name = "payload", length = 1024, nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "creation_date", columnDefinition = "TIMESTAMP", nullable = false, updatable = false)
+    private LocalDateTime creationDate;
+
+    @Column(name = "published", nullable = false, columnDefinition = "BOOLEAN DEFAULT false")
+    private boolean published;
+}
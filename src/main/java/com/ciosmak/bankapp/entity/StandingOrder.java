@@ -0,0 +1,61 @@
+package com.ciosmak.bankapp.entity;
+
+import com.ciosmak.bankapp.standing.order.StandingOrderFrequency;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = true)
+@ToString(onlyExplicitlyIncluded = true)
+
+@Entity
+@Table(name = "standing_orders", indexes = {@Index(name = "idx_standing_orders_active_next_execution_date", columnList = "active, next_execution_date")})
+public class StandingOrder extends AbstractEntity
+{
+    @ToString.Include
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "amount_of_money", scale = 2, nullable = false)
+    private BigDecimal amountOfMoney;
+
+    @ToString.Include
+    @Column(name = "sender_bank_account_number", length = 26, nullable = false)
+    private String senderBankAccountNumber;
+
+    @ToString.Include
+    @Column(name = "receiving_bank_account_number", length = 26, nullable = false)
+    private String receivingBankAccountNumber;
+
+    @ToString.Include
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", length = 16, nullable = false)
+    private StandingOrderFrequency frequency;
+
+    @Column(name = "first_execution_date", columnDefinition = "DATE", nullable = false)
+    private LocalDate firstExecutionDate;
+
+    @Column(name = "number_of_executions", nullable = false)
+    private int numberOfExecutions;
+
+    @ToString.Include
+    @Column(name = "next_execution_date", columnDefinition = "DATE", nullable = false)
+    private LocalDate nextExecutionDate;
+
+    @Column(name = "active", nullable = false, columnDefinition = "BOOLEAN DEFAULT true")
+    private boolean active;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+}
@@ -5,8 +5,6 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 @Data
 @Builder
@@ -16,7 +14,9 @@ import java.util.List;
 @ToString(onlyExplicitlyIncluded = true)
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {@Index(name = "idx_transfers_done_posting_date_id", columnList = "done, posting_date, id"),
+        @Index(name = "idx_transfers_sender_posting_date", columnList = "sender_bank_account_id, posting_date, id"),
+        @Index(name = "idx_transfers_receiving_posting_date", columnList = "receiving_bank_account_number, posting_date, id")})
 public class Transfer extends AbstractEntity
 {
     @ToString.Include
@@ -45,8 +45,10 @@ public class Transfer extends AbstractEntity
     @Column(name = "done", nullable = false, columnDefinition = "BOOLEAN DEFAULT false")
     private boolean done;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
-    @JoinTable(name = "transfers_bank_accounts", joinColumns = {@JoinColumn(name = "transfer_id")}, inverseJoinColumns = {@JoinColumn(name = "bank_account_id")})
-    private List<BankAccount> bankAccounts = new ArrayList<>();
+    @Column(name = "idempotency_key", length = 64, unique = true)
+    private String idempotencyKey;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sender_bank_account_id")
+    private BankAccount senderBankAccount;
 }
@@ -0,0 +1,21 @@
+package com.ciosmak.bankapp.history;
+
+/**
+ * The ExportFormat enum lists the formats of the file to which the history can be exported.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see HistoryExportWriter
+ */
+public enum ExportFormat
+{
+    /**
+     * One line per entry with the fields separated by semicolons, preceded by a header line.
+     */
+    CSV,
+
+    /**
+     * An array of objects, one object per entry.
+     */
+    JSON
+}
@@ -0,0 +1,35 @@
+package com.ciosmak.bankapp.history;
+
+import java.math.BigDecimal;
+
+/**
+ * The HistoryBalance interface is a projection of one entry of the history of a bank account together with the balance of the bank account right after the entry.
+ * The balances are computed by the database with a window function over the entries of the page, starting from the checkpoint balance of the bank account.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.repository.TransferRepository#findLatestHistory(Long, String, BigDecimal, int)
+ */
+public interface HistoryBalance
+{
+    /**
+     * Returns the id of the transfer of the entry.
+     *
+     * @return the id of the transfer
+     */
+    Long getTransferId();
+
+    /**
+     * Returns true if the transfer was sent from the bank account, false if it was received by it.
+     *
+     * @return true if the entry is outgoing
+     */
+    Boolean getOutgoing();
+
+    /**
+     * Returns the balance of the bank account right after the entry.
+     *
+     * @return the balance after the entry
+     */
+    BigDecimal getBalance();
+}
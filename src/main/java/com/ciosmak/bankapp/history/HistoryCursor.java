@@ -0,0 +1,41 @@
+package com.ciosmak.bankapp.history;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * The HistoryCursor class marks the last entry of a history page, so the next page can continue right after it.
+ * The history is ordered by the posting date and the transfer id, both descending, so the next page is found with an indexed range query instead of skipping the entries already shown.
+ * A transfer between two bank accounts of the same user appears in the history of both of them, first as an outgoing and then as an incoming entry, which is why the cursor also remembers the direction of the last entry.
+ * The cursor also carries a checkpoint balance of every bank account of the history, so the running balances of the next page are computed from it instead of from all the entries before the page.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see HistoryPage
+ */
+@Value
+public class HistoryCursor
+{
+    /**
+     * Posting date of the last entry.
+     */
+    LocalDateTime postingDate;
+
+    /**
+     * Id of the transfer of the last entry.
+     */
+    Long transferId;
+
+    /**
+     * True if the last entry is an outgoing transfer, false if it is an incoming one.
+     */
+    boolean outgoing;
+
+    /**
+     * The balance of every bank account right after its newest entry which comes after the last entry, by the id of the bank account.
+     */
+    Map<Long, BigDecimal> balances;
+}
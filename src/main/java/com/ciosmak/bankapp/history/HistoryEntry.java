@@ -0,0 +1,38 @@
+package com.ciosmak.bankapp.history;
+
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.Transfer;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The HistoryEntry class is one line of the history of a bank account, that is a transfer seen from the sender or from the receiving bank account.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see HistoryPage
+ */
+@Value
+public class HistoryEntry
+{
+    /**
+     * The transfer.
+     */
+    Transfer transfer;
+
+    /**
+     * The bank account of the user whose history contains the transfer.
+     */
+    BankAccount bankAccount;
+
+    /**
+     * True if the transfer was sent from the bank account, false if it was received by it.
+     */
+    boolean outgoing;
+
+    /**
+     * The balance of the bank account right after the entry, null if it was not computed.
+     */
+    BigDecimal balance;
+}
@@ -0,0 +1,182 @@
+package com.ciosmak.bankapp.history;
+
+import com.ciosmak.bankapp.entity.Transfer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The HistoryExportWriter class writes the entries of the history to a file one by one, so a history of any length is exported in constant memory.
+ * The file is written through a buffered writer over a file channel, in the CSV or the JSON format.
+ * The date of an outgoing entry is the execution date of its transfer and the date of an incoming entry is the posting date, as in the history shown by {@link com.ciosmak.bankapp.service.HistoryService}.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see ExportFormat
+ */
+public class HistoryExportWriter implements Closeable
+{
+    /**
+     * Creates or truncates the file and writes the beginning of the export.
+     *
+     * @param file         the file to write
+     * @param exportFormat the format of the file
+     * @throws IOException if the file cannot be opened or written
+     */
+    public HistoryExportWriter(Path file, ExportFormat exportFormat) throws IOException
+    {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.writer = new BufferedWriter(Channels.newWriter(fileChannel, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.exportFormat = exportFormat;
+        if (exportFormat == ExportFormat.CSV)
+        {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+        }
+        else
+        {
+            writer.write('[');
+        }
+    }
+
+    /**
+     * Writes one entry of the history.
+     *
+     * @param historyEntry the entry to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(HistoryEntry historyEntry) throws IOException
+    {
+        Transfer transfer = historyEntry.getTransfer();
+        String date = (historyEntry.isOutgoing() ? transfer.getExecutionDate() : transfer.getPostingDate()).toString();
+        String amountOfMoney = (historyEntry.isOutgoing() ? "-" : "") + transfer.getAmountOfMoney().toPlainString();
+        if (exportFormat == ExportFormat.CSV)
+        {
+            writer.write(transfer.getId() + ";" + date + ";" + amountOfMoney + ";" + toCsvField(transfer.getTitle()) + ";" + historyEntry.getBankAccount().getBankAccountNumber() + ";" + toCsvField(historyEntry.getBankAccount().getName()) + ";" + transfer.getSenderBankAccountNumber() + ";" + transfer.getReceivingBankAccountNumber() + ";" + historyEntry.isOutgoing());
+            writer.newLine();
+        }
+        else
+        {
+            writer.write(numberOfEntries == 0 ? "\n" : ",\n");
+            writer.write("{\"transferId\":" + transfer.getId() +
+                    ",\"date\":" + toJsonString(date) +
+                    ",\"amountOfMoney\":" + amountOfMoney +
+                    ",\"title\":" + toJsonString(transfer.getTitle()) +
+                    ",\"bankAccountNumber\":" + toJsonString(historyEntry.getBankAccount().getBankAccountNumber()) +
+                    ",\"bankAccountName\":" + toJsonString(historyEntry.getBankAccount().getName()) +
+                    ",\"senderBankAccountNumber\":" + toJsonString(transfer.getSenderBankAccountNumber()) +
+                    ",\"receivingBankAccountNumber\":" + toJsonString(transfer.getReceivingBankAccountNumber()) +
+                    ",\"outgoing\":" + historyEntry.isOutgoing() + "}");
+        }
+        ++numberOfEntries;
+    }
+
+    /**
+     * Returns the number of entries written so far.
+     *
+     * @return the number of written entries
+     */
+    public long getNumberOfEntries()
+    {
+        return numberOfEntries;
+    }
+
+    /**
+     * Writes the end of the export and closes the file.
+     *
+     * @throws IOException if the file cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try (writer)
+        {
+            if (exportFormat == ExportFormat.JSON)
+            {
+                writer.write(numberOfEntries == 0 ? "]" : "\n]");
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break.
+     *
+     * @param value the value of the field
+     * @return the field
+     */
+    private static String toCsvField(String value)
+    {
+        if (value.indexOf(';') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+        {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Converts a value to a JSON string literal.
+     *
+     * @param value the value
+     * @return the JSON string literal
+     */
+    private static String toJsonString(String value)
+    {
+        StringBuilder jsonString = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i)
+        {
+            char character = value.charAt(i);
+            switch (character)
+            {
+                case '"' -> jsonString.append("\\\"");
+                case '\\' -> jsonString.append("\\\\");
+                case '\n' -> jsonString.append("\\n");
+                case '\r' -> jsonString.append("\\r");
+                case '\t' -> jsonString.append("\\t");
+                default ->
+                {
+                    if (character < 0x20)
+                    {
+                        jsonString.append(String.format("\\u%04x", (int) character));
+                    }
+                    else
+                    {
+                        jsonString.append(character);
+                    }
+                }
+            }
+        }
+        return jsonString.append('"').toString();
+    }
+
+    /**
+     * The header line of a CSV file.
+     */
+    private static final String CSV_HEADER = "transferId;date;amountOfMoney;title;bankAccountNumber;bankAccountName;senderBankAccountNumber;receivingBankAccountNumber;outgoing";
+
+    /**
+     * The size in characters of the buffer of the writer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The writer of the file.
+     */
+    private final BufferedWriter writer;
+
+    /**
+     * The format of the file.
+     */
+    private final ExportFormat exportFormat;
+
+    /**
+     * The number of entries written so far.
+     */
+    private long numberOfEntries;
+}
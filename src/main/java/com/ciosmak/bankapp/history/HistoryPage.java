@@ -0,0 +1,36 @@
+package com.ciosmak.bankapp.history;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The HistoryPage class holds one page of the history of bank accounts, newest entries first, together with the cursor of the next page.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.HistoryService#getHistory(List, HistoryCursor, int)
+ */
+@Value
+public class HistoryPage
+{
+    /**
+     * Checks if the history has more entries after this page.
+     *
+     * @return true if there is a next page, false otherwise
+     */
+    public boolean hasNextPage()
+    {
+        return nextCursor != null;
+    }
+
+    /**
+     * The entries of the page.
+     */
+    List<HistoryEntry> entries;
+
+    /**
+     * The cursor of the next page, null if this is the last page.
+     */
+    HistoryCursor nextCursor;
+}
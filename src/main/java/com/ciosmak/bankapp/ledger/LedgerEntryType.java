@@ -0,0 +1,21 @@
+package com.ciosmak.bankapp.ledger;
+
+/**
+ * The LedgerEntryType enum tells in which direction a ledger entry moves the balance of a bank account.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.LedgerEntry
+ */
+public enum LedgerEntryType
+{
+    /**
+     * Money leaving the bank account, booked when a transfer is made.
+     */
+    DEBIT,
+
+    /**
+     * Money coming to the bank account, booked when transfers are settled.
+     */
+    CREDIT
+}
@@ -0,0 +1,47 @@
+package com.ciosmak.bankapp.ledger;
+
+import com.ciosmak.bankapp.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The LedgerSnapshotScheduler class takes the balance snapshots of all bank accounts in the background, so the balances computed from the ledger only have to read the ledger entries booked since the last snapshot.
+ * The first run after the start of the application also takes the opening snapshots of the bank accounts created before the ledger.
+ * The scheduler pool has a thread for every scheduled job, so a long snapshot run does not delay the settlement, the standing orders or the outbox.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see LedgerService#takeSnapshots()
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class LedgerSnapshotScheduler
+{
+    /**
+     * Takes the balance snapshots of the bank accounts with new ledger entries.
+     */
+    @Scheduled(initialDelayString = "${bank.ledger.snapshot-initial-delay}", fixedDelayString = "${bank.ledger.snapshot-delay}")
+    public void takeSnapshots()
+    {
+        try
+        {
+            int snapshots = ledgerService.takeSnapshots();
+            if (snapshots > 0)
+            {
+                log.info("Took {} balance snapshots", snapshots);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Taking balance snapshots failed", e);
+        }
+    }
+
+    /**
+     * ledgerService is used to take the balance snapshots.
+     */
+    private final LedgerService ledgerService;
+}
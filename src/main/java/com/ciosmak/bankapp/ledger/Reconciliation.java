@@ -0,0 +1,41 @@
+package com.ciosmak.bankapp.ledger;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The Reconciliation class holds the result of comparing the balance of a bank account with the balance computed from the ledger.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.LedgerService#reconcile(String)
+ */
+@Value
+public class Reconciliation
+{
+    /**
+     * Checks if the balance of the bank account matches the ledger.
+     *
+     * @return true if both balances are equal, false otherwise
+     */
+    public boolean isMatching()
+    {
+        return ledgerBalance != null && balance.compareTo(ledgerBalance) == 0;
+    }
+
+    /**
+     * Bank account number of the reconciled bank account.
+     */
+    String bankAccountNumber;
+
+    /**
+     * Balance stored in the bank account.
+     */
+    BigDecimal balance;
+
+    /**
+     * Balance computed from the last balance snapshot and the ledger entries booked after it, null if the bank account has no balance snapshot yet.
+     */
+    BigDecimal ledgerBalance;
+}
@@ -1,6 +1,7 @@
 package com.ciosmak.bankapp.menu;
 
 import com.ciosmak.bankapp.bank.account.id.BankAccountId;
+import com.ciosmak.bankapp.dashboard.DashboardSummary;
 import com.ciosmak.bankapp.exception.FatalError;
 import com.ciosmak.bankapp.exception.IllegalOptionSelectedException;
 import com.ciosmak.bankapp.payment.card.id.PaymentCardId;
@@ -22,17 +23,15 @@ public class Menu
 {
     /**
      * Method to display the login menu and handle user input.
-     * It also calls the transfer service to auto make transfers.
+     * Pending transfers are settled in the background by the settlement scheduler, so the login menu does not wait for them.
      *
      * @param userService             User service.
      * @param identityDocumentService Identity document service.
      * @param bankAccountService      Bank account service.
      * @param paymentCardService      Payment card service.
-     * @param transferService         Transfer service.
      */
-    public static void loginMenu(UserService userService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService)
+    public static void loginMenu(UserService userService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService)
     {
-        transferService.autoMakeTransfers();
         int selectedOption;
         while (true)
         {
@@ -92,8 +91,9 @@ public class Menu
      * @param paymentCardService      instance of PaymentCardService class which allow to perform operations on user payment cards
      * @param transferService         instance of TransferService class which allow to perform operations on user transfers
      * @param historyService          instance of HistoryService class which allow to perform operations on user history
+     * @param standingOrderService    instance of StandingOrderService class which allow to perform operations on user standing orders
      */
-    public static void mainMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    public static void mainMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -111,10 +111,10 @@ public class Menu
 
                 switch (selectedOption)
                 {
-                    case 1 -> desktop(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
-                    case 2 -> paymentMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
-                    case 3 -> products(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
-                    case 4 -> setting(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 1 -> desktop(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
+                    case 2 -> paymentMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
+                    case 3 -> products(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
+                    case 4 -> setting(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     case 5 -> System.exit(0);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
@@ -137,7 +137,7 @@ public class Menu
     }
 
     /**
-     * The desktop method provides the user with a summary of their financial information, including their total balance across all bank accounts, their expenses and income for the current month, the number of active bank accounts and payment cards, and the last five transactions from their history. The user also has the option to view their full transaction history.
+     * The desktop method provides the user with a summary of their financial information, including their total balance across all bank accounts, their expenses and income for the current month, the number of active bank accounts and payment cards, and the last five transactions from their history. The user also has the option to view their full transaction history or to export it to a file.
      *
      * @param userService             instance of UserService class which allow to perform user operations
      * @param personalDataService     instance of PersonalDataService class which allow to perform operations on user personal data
@@ -147,15 +147,17 @@ public class Menu
      * @param paymentCardService      instance of PaymentCardService class which allow to perform operations on user payment cards
      * @param transferService         instance of TransferService class which allow to perform operations on user transfers
      * @param historyService          instance of HistoryService class which allow to perform operations on user history
+     * @param standingOrderService    instance of StandingOrderService class which allow to perform operations on user standing orders
      */
-    public static void desktop(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    public static void desktop(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         System.out.println("\n---PULPIT---");
-        System.out.println("Łączny balans: " + bankAccountService.getBalanceFromAllBankAccounts(userId) + "zł");
-        System.out.println("Wydatki od początku bieżącego miesiąca: " + historyService.getExpensesForCurrentMonth(userId) + "zł");
-        System.out.println("Przychody od początku bieżącego miesiąca: " + historyService.getIncomeForCurrentMonth(userId) + "zł");
-        System.out.println("Ilość aktywnych rachunków: " + bankAccountService.getNumberOfOpenBankAccounts(userId));
-        System.out.println("Ilość aktywnych kart płatniczych: " + paymentCardService.getNumberOfNoPermanentlyBlockedPaymentCards(userId));
+        DashboardSummary dashboardSummary = historyService.getDashboardSummary(userId);
+        System.out.println("Łączny balans: " + dashboardSummary.getBalance() + "zł");
+        System.out.println("Wydatki od początku bieżącego miesiąca: " + dashboardSummary.getExpenses() + "zł");
+        System.out.println("Przychody od początku bieżącego miesiąca: " + dashboardSummary.getIncome() + "zł");
+        System.out.println("Ilość aktywnych rachunków: " + dashboardSummary.getNumberOfOpenBankAccounts());
+        System.out.println("Ilość aktywnych kart płatniczych: " + dashboardSummary.getNumberOfActivePaymentCards());
         System.out.println("---NAJNOWSZA HISTORIA---");
         historyService.showHistory(userId, Integer.valueOf(5));
         int selectedOption;
@@ -165,7 +167,8 @@ public class Menu
             {
                 System.out.println("\n---HISTORIA---");
                 System.out.println("1. Pokaż całą historię");
-                System.out.println("2. Wstecz");
+                System.out.println("2. Eksportuj historię do pliku");
+                System.out.println("3. Wstecz");
                 System.out.print("Wybieram: ");
                 selectedOption = scanner.nextInt();
                 switch (selectedOption)
@@ -175,14 +178,19 @@ public class Menu
                         historyService.showHistory(userId, Integer.MAX_VALUE);
                         return;
                     }
-                    case 2 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 2 ->
+                    {
+                        historyService.exportHistory(userId);
+                        return;
+                    }
+                    case 3 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
             catch (InputMismatchException e)
             {
                 scanner = new Scanner(System.in);
-                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 2.\nSpróbuj ponownie.");
+                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 3.\nSpróbuj ponownie.");
                 System.err.flush();
             }
             catch (IllegalOptionSelectedException e)
@@ -197,7 +205,7 @@ public class Menu
     }
 
     /**
-     * The paymentMenu method provides the user with options for managing their payments, including creating new transfers and viewing their transaction history.
+     * The paymentMenu method provides the user with options for managing their payments, including creating new transfers, importing transfers from a file, creating and cancelling standing orders and viewing their transaction history.
      *
      * @param userService             instance of UserService class which allow to perform user operations
      * @param personalDataService     instance of PersonalDataService class which allow to perform operations on user personal data
@@ -207,8 +215,9 @@ public class Menu
      * @param paymentCardService      instance of PaymentCardService class which allow to perform operations on user payment cards
      * @param transferService         instance of TransferService class which allow to perform operations on user transfers
      * @param historyService          instance of HistoryService class which allow to perform operations on user history
+     * @param standingOrderService    instance of StandingOrderService class which allow to perform operations on user standing orders
      */
-    public static void paymentMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    public static void paymentMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -217,23 +226,29 @@ public class Menu
             {
                 System.out.println("\n---PŁATNOŚCI---");
                 System.out.println("1. Nowy przelew");
-                System.out.println("2. Historia");
-                System.out.println("3. Wstecz");
+                System.out.println("2. Import przelewów z pliku");
+                System.out.println("3. Nowe zlecenie stałe");
+                System.out.println("4. Anuluj zlecenie stałe");
+                System.out.println("5. Historia");
+                System.out.println("6. Wstecz");
                 System.out.print("Wybieram: ");
                 selectedOption = scanner.nextInt();
 
                 switch (selectedOption)
                 {
                     case 1 -> transferService.create(userId);
-                    case 2 -> historyService.showHistory(userId, Integer.MAX_VALUE);
-                    case 3 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 2 -> transferService.importTransfers(userId);
+                    case 3 -> standingOrderService.create(userId);
+                    case 4 -> standingOrderService.cancel(userId);
+                    case 5 -> historyService.showHistory(userId, Integer.MAX_VALUE);
+                    case 6 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
             catch (InputMismatchException e)
             {
                 scanner = new Scanner(System.in);
-                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 4.\nSpróbuj ponownie.");
+                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 6.\nSpróbuj ponownie.");
                 System.err.flush();
             }
             catch (IllegalOptionSelectedException e)
@@ -265,7 +280,7 @@ public class Menu
      * @param transferService         Transfer service object used to perform actions related to transfers.
      * @param historyService          History service object used to perform actions related to history.
      */
-    public static void products(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    public static void products(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -290,16 +305,16 @@ public class Menu
                     case 2 ->
                     {
                         bankAccountId.setId(bankAccountService.chooseOneBankAccount(userId));
-                        bankAccountMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                        bankAccountMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                         return;
                     }
                     case 3 ->
                     {
                         paymentCardId.setId(paymentCardService.chooseOnePaymentCard(userId));
-                        paymentCardMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                        paymentCardMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                         return;
                     }
-                    case 4 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 4 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
@@ -340,7 +355,7 @@ public class Menu
      * @param transferService         Transfer service object used to perform actions related to transfers.
      * @param historyService          History service object used to perform actions related to history.
      */
-    public static void setting(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    public static void setting(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -384,7 +399,7 @@ public class Menu
                         identityDocumentService.updateIdentityDocument(userId, "\n---AKTUALIZACJA DOWÓDU OSOBISTEGO---", "");
                         return;
                     }
-                    case 6 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 6 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
@@ -422,7 +437,7 @@ public class Menu
      * @param transferService         Transfer service object used to perform actions related to transfers.
      * @param historyService          History service object used to perform actions related to history.
      */
-    private static void bankAccountMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    private static void bankAccountMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -440,7 +455,7 @@ public class Menu
                 {
                     case 1 -> bankAccountService.showBankAccount(bankAccountId);
                     case 2 -> bankAccountService.changeBankAccountName(bankAccountId);
-                    case 3 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 3 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
@@ -482,7 +497,7 @@ public class Menu
      * @param transferService         Transfer service object used to perform actions related to transfers.
      * @param historyService          History service object used to perform actions related to history.
      */
-    private static void paymentCardMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    private static void paymentCardMenu(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -507,8 +522,8 @@ public class Menu
                     case 3 -> paymentCardService.unlock(paymentCardId);
                     case 4 -> paymentCardService.blockTemporarily(paymentCardId);
                     case 5 -> paymentCardService.blockPermanently(paymentCardId);
-                    case 6 -> paymentCardMenuExternal(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
-                    case 7 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 6 -> paymentCardMenuExternal(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
+                    case 7 -> mainMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
@@ -543,7 +558,7 @@ public class Menu
      * @param transferService         an object that allows to perform transfer operations
      * @param historyService          an object that allows to display history of operations
      */
-    private static void paymentCardMenuExternal(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService)
+    private static void paymentCardMenuExternal(UserService userService, PersonalDataService personalDataService, AddressService addressService, IdentityDocumentService identityDocumentService, BankAccountService bankAccountService, PaymentCardService paymentCardService, TransferService transferService, HistoryService historyService, StandingOrderService standingOrderService)
     {
         int selectedOption;
         while (true)
@@ -569,7 +584,7 @@ public class Menu
                     case 4 -> paymentCardService.changeTransactionsWithDdcServiceOption(paymentCardId);
                     case 5 -> paymentCardService.changeSurchargeTransactionsOption(paymentCardId);
                     case 6 -> paymentCardService.changeDebitOption(paymentCardId);
-                    case 7 -> paymentCardMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService);
+                    case 7 -> paymentCardMenu(userService, personalDataService, addressService, identityDocumentService, bankAccountService, paymentCardService, transferService, historyService, standingOrderService);
                     default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nSpróbuj ponownie.\n", "");
                 }
             }
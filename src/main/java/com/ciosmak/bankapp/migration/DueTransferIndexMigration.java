@@ -0,0 +1,55 @@
+package com.ciosmak.bankapp.migration;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The DueTransferIndexMigration class removes the index on the done and posting date columns of the transfers table.
+ * The index was replaced by the index on the done, posting date and id columns, which is created by Hibernate when the schema is updated and serves the same queries, so in an existing database the old index would only slow down the writes.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.Transfer
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class DueTransferIndexMigration implements InitializingBean
+{
+    /**
+     * Drops the old index if it still exists.
+     */
+    @Override
+    public void afterPropertiesSet()
+    {
+        transactionTemplate.executeWithoutResult(status -> migrate());
+    }
+
+    /**
+     * Checks whether the old index exists and drops it.
+     */
+    private void migrate()
+    {
+        Number indexes = (Number) entityManager.createNativeQuery("select count(*) from information_schema.indexes where upper(index_name) = 'IDX_TRANSFERS_DONE_POSTING_DATE'").getSingleResult();
+        if (indexes.intValue() == 0)
+        {
+            return;
+        }
+        entityManager.createNativeQuery("drop index idx_transfers_done_posting_date").executeUpdate();
+        log.info("Index idx_transfers_done_posting_date dropped");
+    }
+
+    /**
+     * entityManager is used to run the migration statements.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * transactionTemplate is used to run the migration in a transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+}
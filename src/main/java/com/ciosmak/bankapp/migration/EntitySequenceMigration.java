@@ -0,0 +1,73 @@
+package com.ciosmak.bankapp.migration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The EntitySequenceMigration class prepares the sequence used to generate the ids of all entities.
+ * The ids used to be generated by identity columns, so in an existing database the sequence created by Hibernate starts below the ids which are already used.
+ * On startup the class moves the sequence past the highest id stored in any entity table, unless the sequence is already there.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.AbstractEntity
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class EntitySequenceMigration implements InitializingBean
+{
+    /**
+     * Moves the entity sequence past the highest id stored in the database.
+     */
+    @Override
+    public void afterPropertiesSet()
+    {
+        transactionTemplate.executeWithoutResult(status -> alignSequence());
+    }
+
+    /**
+     * Finds the highest id of all entities and restarts the sequence if the next ids handed out by it could collide with the existing ones.
+     * Hibernate's pooled optimizer uses the values from the sequence as the upper bound of a block of ids, so the sequence has to be at least a whole block above the highest id.
+     */
+    private void alignSequence()
+    {
+        long maxId = 0L;
+        for (EntityType<?> entityType : entityManager.getMetamodel().getEntities())
+        {
+            Long entityMaxId = entityManager.createQuery("select max(e.id) from " + entityType.getName() + " e", Long.class).getSingleResult();
+            if (entityMaxId != null && entityMaxId > maxId)
+            {
+                maxId = entityMaxId;
+            }
+        }
+
+        long nextValue = ((Number) entityManager.createNativeQuery("select base_value from information_schema.sequences where upper(sequence_name) = 'ENTITY_SEQUENCE'").getSingleResult()).longValue();
+        long requiredValue = maxId + ALLOCATION_SIZE;
+        if (nextValue < requiredValue)
+        {
+            entityManager.createNativeQuery("alter sequence entity_sequence restart with " + requiredValue).executeUpdate();
+            log.info("Entity sequence restarted with {}", requiredValue);
+        }
+    }
+
+    /**
+     * Number of ids allocated by Hibernate from one sequence value.
+     */
+    private static final long ALLOCATION_SIZE = 50L;
+
+    /**
+     * entityManager is used to read the highest ids and to restart the sequence.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * transactionTemplate is used to run the migration in a transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+}
@@ -0,0 +1,100 @@
+package com.ciosmak.bankapp.migration;
+
+import com.ciosmak.bankapp.entity.MonthlyRollup;
+import com.ciosmak.bankapp.repository.MonthlyRollupRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The MonthlyRollupMigration class computes the monthly totals of the bank accounts from the transfers made before the totals were kept.
+ * On startup, if there are transfers but no monthly totals at all, the debits are summed by the month of the execution date and the credits of the settled transfers by the month of the posting date, which is the earliest time at which they could have been settled.
+ * From then on the totals are kept up to date by the {@link com.ciosmak.bankapp.service.MonthlyRollupService}, so the migration runs only once.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see MonthlyRollup
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class MonthlyRollupMigration implements InitializingBean
+{
+    /**
+     * Computes the monthly totals, if there are transfers without them.
+     */
+    @Override
+    public void afterPropertiesSet()
+    {
+        transactionTemplate.executeWithoutResult(status -> backfill());
+    }
+
+    /**
+     * Sums the transfers by bank account and month and saves the totals.
+     */
+    private void backfill()
+    {
+        if (monthlyRollupRepository.count() > 0 || ((Number) entityManager.createNativeQuery("select count(*) from transfers").getSingleResult()).longValue() == 0)
+        {
+            return;
+        }
+
+        LinkedHashMap<String, MonthlyRollup> monthlyRollups = new LinkedHashMap<>();
+        List<?> debits = entityManager.createNativeQuery("select sender_bank_account_number, year(execution_date) * 100 + month(execution_date), sum(amount_of_money) from transfers " +
+                "group by sender_bank_account_number, year(execution_date) * 100 + month(execution_date)").getResultList();
+        for (var row : debits)
+        {
+            Object[] columns = (Object[]) row;
+            getMonthlyRollup(monthlyRollups, (String) columns[0], ((Number) columns[1]).intValue()).setDebits((BigDecimal) columns[2]);
+        }
+        List<?> credits = entityManager.createNativeQuery("select receiving_bank_account_number, year(posting_date) * 100 + month(posting_date), sum(amount_of_money) from transfers where done = true " +
+                "and receiving_bank_account_number in (select bank_account_number from bank_accounts) group by receiving_bank_account_number, year(posting_date) * 100 + month(posting_date)").getResultList();
+        for (var row : credits)
+        {
+            Object[] columns = (Object[]) row;
+            getMonthlyRollup(monthlyRollups, (String) columns[0], ((Number) columns[1]).intValue()).setCredits((BigDecimal) columns[2]);
+        }
+        monthlyRollupRepository.saveAll(monthlyRollups.values());
+        log.info("Monthly totals of {} bank account months computed from the transfers", monthlyRollups.size());
+    }
+
+    /**
+     * Returns the totals of a bank account in a month, creating empty totals if they are not in the map yet.
+     *
+     * @param monthlyRollups    the totals computed so far
+     * @param bankAccountNumber the bank account number
+     * @param bookingMonth      the month in the yyyymm format
+     * @return the totals of the bank account in the month
+     */
+    private MonthlyRollup getMonthlyRollup(LinkedHashMap<String, MonthlyRollup> monthlyRollups, String bankAccountNumber, int bookingMonth)
+    {
+        return monthlyRollups.computeIfAbsent(bankAccountNumber + ":" + bookingMonth, key -> MonthlyRollup.builder().
+                bankAccountNumber(bankAccountNumber).
+                bookingMonth(bookingMonth).
+                debits(BigDecimal.ZERO).
+                credits(BigDecimal.ZERO).
+                build());
+    }
+
+    /**
+     * entityManager is used to sum the transfers.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * monthlyRollupRepository is used to check for and to save the monthly totals.
+     */
+    private final MonthlyRollupRepository monthlyRollupRepository;
+
+    /**
+     * transactionTemplate is used to run the migration in a transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+}
@@ -0,0 +1,78 @@
+package com.ciosmak.bankapp.migration;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The TransferSenderMigration class moves the link between a transfer and its sender bank account from the transfers_bank_accounts join table to the sender_bank_account_id column of the transfers table.
+ * The column is added by Hibernate when the schema is updated, but in an existing database it is empty for the transfers made before.
+ * On startup, while the join table exists, the class fills the empty column from it; the transfers whose column is already filled are not touched, so repeating the migration changes nothing.
+ * The join table is not mapped anymore but it is kept, so the previous release can still be started on the same database; it is dropped only when the bank.migration.drop-transfers-bank-accounts property is true.
+ * The sender bank account number stored in the transfer stays the source of truth: a row of the join table is used only if its bank account has this number, otherwise the bank account is found by the number.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.Transfer
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class TransferSenderMigration implements InitializingBean
+{
+    /**
+     * Fills the sender bank account column and, if configured, drops the join table, if the join table still exists.
+     */
+    @Override
+    public void afterPropertiesSet()
+    {
+        transactionTemplate.executeWithoutResult(status -> migrate());
+    }
+
+    /**
+     * Copies the sender bank accounts from the join table to the transfers table and drops the join table if configured.
+     */
+    private void migrate()
+    {
+        Number joinTables = (Number) entityManager.createNativeQuery("select count(*) from information_schema.tables where upper(table_name) = 'TRANSFERS_BANK_ACCOUNTS'").getSingleResult();
+        if (joinTables.intValue() == 0)
+        {
+            return;
+        }
+
+        String matchingJoinRow = "from transfers_bank_accounts tba join bank_accounts b on b.id = tba.bank_account_id where tba.transfer_id = t.id and b.bank_account_number = t.sender_bank_account_number";
+        int fromJoinTable = entityManager.createNativeQuery("update transfers t set sender_bank_account_id = (select min(b.id) " + matchingJoinRow + ") " +
+                "where t.sender_bank_account_id is null and exists (select 1 " + matchingJoinRow + ")").executeUpdate();
+        int fromNumber = entityManager.createNativeQuery("update transfers t set sender_bank_account_id = (select b.id from bank_accounts b where b.bank_account_number = t.sender_bank_account_number) " +
+                "where t.sender_bank_account_id is null").executeUpdate();
+        if (fromJoinTable + fromNumber > 0)
+        {
+            log.info("Sender bank accounts of {} transfers copied from the join table and of {} transfers found by the bank account number", fromJoinTable, fromNumber);
+        }
+        if (dropJoinTable)
+        {
+            entityManager.createNativeQuery("drop table transfers_bank_accounts").executeUpdate();
+            log.info("Join table transfers_bank_accounts dropped");
+        }
+    }
+
+    /**
+     * entityManager is used to run the migration statements.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * transactionTemplate is used to run the migration in a transaction.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * dropJoinTable tells whether the join table is dropped after the migration, it should be set only when the previous release is not used anymore.
+     */
+    @Value("${bank.migration.drop-transfers-bank-accounts}")
+    private boolean dropJoinTable;
+}
@@ -0,0 +1,67 @@
+package com.ciosmak.bankapp.money;
+
+import java.math.BigDecimal;
+
+/**
+ * The MinorUnits class converts amounts of money between {@link BigDecimal}, used by the entities and the database, and {@code long} numbers of grosze, used for computations in memory.
+ * Sums and comparisons of amounts in grosze are plain {@code long} operations and do not create a new object for every addition.
+ * The balances of the bank accounts are held in grosze by the entities themselves, converted by the {@link com.ciosmak.bankapp.money.converter.MinorUnitsConverter} once when they are loaded and saved.
+ * The conversion is exact: an amount with more than two decimal places or too large to be held in grosze throws an exception instead of being rounded.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ */
+public final class MinorUnits
+{
+    /**
+     * The class has only static methods.
+     */
+    private MinorUnits()
+    {
+    }
+
+    /**
+     * Converts an amount of money to grosze.
+     *
+     * @param amountOfMoney the amount of money with at most two decimal places
+     * @return the amount of money in grosze
+     * @throws ArithmeticException if the amount has more than two decimal places or does not fit in grosze
+     */
+    public static long toMinorUnits(BigDecimal amountOfMoney)
+    {
+        return amountOfMoney.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts an amount of money in grosze to an amount with two decimal places.
+     *
+     * @param minorUnits the amount of money in grosze
+     * @return the amount of money
+     */
+    public static BigDecimal toBigDecimal(long minorUnits)
+    {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Checks if the whole part of an amount of money is small enough to be held in grosze.
+     * The decimal places are not checked, an amount with more than two of them is rejected separately.
+     *
+     * @param amountOfMoney the amount of money
+     * @return true if the amount fits in grosze, false otherwise
+     */
+    public static boolean fits(BigDecimal amountOfMoney)
+    {
+        return amountOfMoney.precision() - amountOfMoney.scale() <= MAXIMUM_DIGITS - SCALE;
+    }
+
+    /**
+     * The number of decimal places of an amount of money.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The number of digits of the largest amount in grosze which can be held without overflow, with some room left for sums.
+     */
+    private static final int MAXIMUM_DIGITS = 17;
+}
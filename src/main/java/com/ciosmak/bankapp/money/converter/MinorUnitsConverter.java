@@ -0,0 +1,45 @@
+package com.ciosmak.bankapp.money.converter;
+
+import com.ciosmak.bankapp.money.MinorUnits;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * This class is used as a converter for amounts of money held in grosze to be stored in the database as decimal numbers with two decimal places.
+ * The convertToDatabaseColumn method is used to convert an amount in grosze to its decimal representation in the database.
+ * The convertToEntityAttribute method is used to convert the decimal representation in the database to the amount in grosze, so the amount is converted once when the entity is loaded and not on every computation.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see MinorUnits
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal>
+{
+    /**
+     * Converts the amount of money in grosze to its decimal representation in the database.
+     *
+     * @param attribute amount of money in grosze
+     * @return decimal representation of the amount in the database
+     */
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long attribute)
+    {
+        return attribute == null ? null : MinorUnits.toBigDecimal(attribute);
+    }
+
+    /**
+     * Converts the decimal representation of an amount of money in the database to the amount in grosze.
+     *
+     * @param dbData decimal representation of the amount in the database
+     * @return amount of money in grosze
+     * @throws ArithmeticException if the amount has more than two decimal places or does not fit in grosze
+     */
+    @Override
+    public Long convertToEntityAttribute(BigDecimal dbData)
+    {
+        return dbData == null ? null : MinorUnits.toMinorUnits(dbData);
+    }
+}
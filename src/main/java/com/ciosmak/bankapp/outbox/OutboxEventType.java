@@ -0,0 +1,31 @@
+package com.ciosmak.bankapp.outbox;
+
+/**
+ * The OutboxEventType enum lists the kinds of events written to the outbox.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.OutboxEvent
+ */
+public enum OutboxEventType
+{
+    /**
+     * A transfer was made and its sender bank account was debited.
+     */
+    TRANSFER_MADE,
+
+    /**
+     * Transfers received by a bank account were settled and the bank account was credited.
+     */
+    TRANSFERS_SETTLED,
+
+    /**
+     * A bank account was opened.
+     */
+    BANK_ACCOUNT_OPENED,
+
+    /**
+     * A bank account was renamed.
+     */
+    BANK_ACCOUNT_RENAMED
+}
@@ -0,0 +1,74 @@
+package com.ciosmak.bankapp.outbox;
+
+import com.ciosmak.bankapp.entity.OutboxEvent;
+import com.ciosmak.bankapp.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OutboxPublisher class polls the outbox in the background and publishes the unpublished events to all {@link OutboxSubscriber} beans, batch by batch.
+ * A batch is marked as published only after all subscribers have handled it, so an event is delivered at least once, also when the application stops in the middle of a batch.
+ * Every poll also deletes the published events older than the retention period, so the outbox does not grow without bounds.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see OutboxService
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class OutboxPublisher
+{
+    /**
+     * Publishes all unpublished events and deletes the old published ones. A failing subscriber stops the publishing, and the failed batch is delivered again by the next poll.
+     */
+    @Scheduled(initialDelayString = "${bank.outbox.poll-initial-delay}", fixedDelayString = "${bank.outbox.poll-delay}")
+    public synchronized void publish()
+    {
+        try
+        {
+            List<OutboxEvent> outboxEventsList;
+            do
+            {
+                outboxEventsList = outboxService.findUnpublishedEvents();
+                if (outboxEventsList.isEmpty())
+                {
+                    break;
+                }
+                List<OutboxEvent> batch = outboxEventsList;
+                outboxSubscribers.orderedStream().forEach(outboxSubscriber -> outboxSubscriber.handle(batch));
+                List<Long> ids = new ArrayList<>(outboxEventsList.size());
+                for (var outboxEvent : outboxEventsList)
+                {
+                    ids.add(outboxEvent.getId());
+                }
+                outboxService.markPublished(ids);
+            } while (outboxEventsList.size() == outboxService.getBatchSize());
+            int purgedEvents = outboxService.purgePublishedEvents();
+            if (purgedEvents > 0)
+            {
+                log.info("Deleted {} published outbox events", purgedEvents);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Publishing outbox events failed", e);
+        }
+    }
+
+    /**
+     * outboxService is used to read the unpublished events, to mark them as published and to delete the old ones.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * outboxSubscribers are the subscribers receiving the events, there may be none.
+     */
+    private final ObjectProvider<OutboxSubscriber> outboxSubscribers;
+}
@@ -0,0 +1,24 @@
+package com.ciosmak.bankapp.outbox;
+
+import com.ciosmak.bankapp.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * The OutboxSubscriber interface is implemented by the components which want to receive the events written to the outbox, for example notifications, analytics or statements.
+ * Every bean implementing this interface is called by the {@link OutboxPublisher} with the events in ascending id order.
+ * The delivery is at least once: if a subscriber or the publisher fails, the whole batch is delivered again by the next poll, so subscribers have to tolerate repeated events, for example by remembering the ids of the handled events.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see OutboxPublisher
+ */
+public interface OutboxSubscriber
+{
+    /**
+     * Handles a batch of events.
+     *
+     * @param outboxEvents the events, in ascending id order
+     */
+    void handle(List<OutboxEvent> outboxEvents);
+}
@@ -0,0 +1,36 @@
+package com.ciosmak.bankapp.repository;
+
+import com.ciosmak.bankapp.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The BalanceSnapshotRepository interface is a Spring Data JPA repository for {@link BalanceSnapshot} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for finding the balance snapshots of a bank account.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see JpaRepository
+ * @see BalanceSnapshot
+ */
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long>
+{
+    /**
+     * Method to find the newest balance snapshot of a bank account.
+     *
+     * @param bankAccountNumber Bank account number.
+     * @return Optional of BalanceSnapshot.
+     */
+    Optional<BalanceSnapshot> findFirstByBankAccountNumberOrderBySnapshotDateDescIdDesc(String bankAccountNumber);
+
+    /**
+     * Method to find the newest balance snapshot of a bank account taken until the given date.
+     *
+     * @param bankAccountNumber Bank account number.
+     * @param snapshotDate      Latest date of the snapshot.
+     * @return Optional of BalanceSnapshot.
+     */
+    Optional<BalanceSnapshot> findFirstByBankAccountNumberAndSnapshotDateLessThanEqualOrderBySnapshotDateDescIdDesc(String bankAccountNumber, LocalDateTime snapshotDate);
+}
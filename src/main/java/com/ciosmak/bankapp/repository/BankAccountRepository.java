@@ -1,9 +1,14 @@
 package com.ciosmak.bankapp.repository;
 
+import com.ciosmak.bankapp.dashboard.DashboardSummary;
 import com.ciosmak.bankapp.entity.BankAccount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -43,4 +48,51 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
      * @return the list of bank accounts that belongs to the given user
      */
     ArrayList<BankAccount> findByUserId(Long userId);
+
+    /**
+     * Find bank accounts by bank account numbers.
+     *
+     * @param bankAccountNumbers the bank account numbers of the bank accounts
+     * @return the list of bank accounts with the given bank account numbers
+     */
+    ArrayList<BankAccount> findByBankAccountNumberIn(Collection<String> bankAccountNumbers);
+
+    /**
+     * Find one chunk of bank account numbers in ascending order, starting after the given bank account number.
+     * Only the numbers are read, so walking through all bank accounts does not load them into the persistence context.
+     *
+     * @param bankAccountNumber the last bank account number from the previous chunk
+     * @param pageable          the size of the chunk
+     * @return the list of bank account numbers greater than the given bank account number
+     */
+    @Query("select b.bankAccountNumber from BankAccount b where b.bankAccountNumber > :bankAccountNumber order by b.bankAccountNumber")
+    ArrayList<String> findBankAccountNumbersAfter(@Param("bankAccountNumber") String bankAccountNumber, Pageable pageable);
+
+    /**
+     * Find the id of the user owning the bank account with the given payment card.
+     *
+     * @param paymentCardId the id of the payment card
+     * @return the id of the user owning the payment card
+     */
+    @Query("select b.user.id from BankAccount b where b.paymentCard.id = :paymentCardId")
+    Optional<Long> findUserIdByPaymentCardId(@Param("paymentCardId") Long paymentCardId);
+
+    /**
+     * Find the figures of the desktop of a user with one aggregate query.
+     * Every bank account of the user is joined with its payment card and with its totals of the given month, of which there is at most one row, so each bank account is counted once.
+     *
+     * @param userId       the id of the user
+     * @param bookingMonth the month of the expenses and the income in the yyyymm format
+     * @return the summary of the desktop of the user
+     */
+    @Query(value = "select coalesce(sum(case when b.is_open then b.balance end), 0.00) as \"balance\", " +
+            "coalesce(sum(r.debits), 0.00) as \"expenses\", " +
+            "coalesce(sum(r.credits), 0.00) as \"income\", " +
+            "count(case when b.is_open then 1 end) as \"numberOfOpenBankAccounts\", " +
+            "count(case when p.status <> 'BLOCKED_PERMANENTLY' then 1 end) as \"numberOfActivePaymentCards\" " +
+            "from bank_accounts b " +
+            "left join payment_cards p on p.id = b.payment_card_id " +
+            "left join monthly_rollups r on r.bank_account_number = b.bank_account_number and r.booking_month = :bookingMonth " +
+            "where b.user_id = :userId", nativeQuery = true)
+    DashboardSummary findDashboardSummary(@Param("userId") Long userId, @Param("bookingMonth") Integer bookingMonth);
 }
@@ -0,0 +1,44 @@
+package com.ciosmak.bankapp.repository;
+
+import com.ciosmak.bankapp.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The LedgerEntryRepository interface is a Spring Data JPA repository for {@link LedgerEntry} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for appending ledger entries and for summing the entries booked after a balance snapshot.
+ * The entries of a bank account are numbered by their sequence numbers, and all the queries are served by the unique index on the bank account number and sequence number columns.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see JpaRepository
+ * @see LedgerEntry
+ */
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>
+{
+    /**
+     * Method to sum the ledger entries of a bank account with sequence numbers in the given range, credits added and debits subtracted.
+     *
+     * @param bankAccountNumber   Bank account number.
+     * @param afterSequenceNumber Sequence number after which the entries are summed.
+     * @param lastSequenceNumber  Sequence number of the last summed entry.
+     * @return Sum of the ledger entries.
+     */
+    @Query("select coalesce(sum(case when e.type = com.ciosmak.bankapp.ledger.LedgerEntryType.CREDIT then e.amountOfMoney else -e.amountOfMoney end), 0) from LedgerEntry e where e.bankAccountNumber = :bankAccountNumber and e.sequenceNumber > :afterSequenceNumber and e.sequenceNumber <= :lastSequenceNumber")
+    BigDecimal sumEntries(@Param("bankAccountNumber") String bankAccountNumber, @Param("afterSequenceNumber") Long afterSequenceNumber, @Param("lastSequenceNumber") Long lastSequenceNumber);
+
+    /**
+     * Method to sum the ledger entries of a bank account with sequence numbers after the given one and booked until the given date, credits added and debits subtracted.
+     *
+     * @param bankAccountNumber   Bank account number.
+     * @param afterSequenceNumber Sequence number after which the entries are summed.
+     * @param bookingDate         Latest booking date of the summed entries.
+     * @return Sum of the ledger entries.
+     */
+    @Query("select coalesce(sum(case when e.type = com.ciosmak.bankapp.ledger.LedgerEntryType.CREDIT then e.amountOfMoney else -e.amountOfMoney end), 0) from LedgerEntry e where e.bankAccountNumber = :bankAccountNumber and e.sequenceNumber > :afterSequenceNumber and e.bookingDate <= :bookingDate")
+    BigDecimal sumEntriesBookedUntil(@Param("bankAccountNumber") String bankAccountNumber, @Param("afterSequenceNumber") Long afterSequenceNumber, @Param("bookingDate") LocalDateTime bookingDate);
+}
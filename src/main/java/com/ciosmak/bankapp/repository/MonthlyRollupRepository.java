@@ -0,0 +1,56 @@
+package com.ciosmak.bankapp.repository;
+
+import com.ciosmak.bankapp.entity.MonthlyRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * The MonthlyRollupRepository interface is a Spring Data JPA repository for {@link MonthlyRollup} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for finding the monthly totals of a bank account and for summing them for a user.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see JpaRepository
+ * @see MonthlyRollup
+ */
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, Long>
+{
+    /**
+     * Method to find the totals of a bank account in the given month.
+     * The query is served by the unique constraint on the bank account number and month columns.
+     * It does not flush the persistence context, since the totals changed in the current transaction are kept by the caller, so it does not break the batching of the pending inserts.
+     *
+     * @param bankAccountNumber Bank account number.
+     * @param bookingMonth      Month in the yyyymm format.
+     * @return Optional of MonthlyRollup.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    Optional<MonthlyRollup> findByBankAccountNumberAndBookingMonth(String bankAccountNumber, Integer bookingMonth);
+
+    /**
+     * Method to sum the debits of all bank accounts of a user in the given month.
+     *
+     * @param userId       Id of the user.
+     * @param bookingMonth Month in the yyyymm format.
+     * @return Sum of the debits, zero if there are none.
+     */
+    @Query("select coalesce(sum(r.debits), 0) from MonthlyRollup r where r.bookingMonth = :month and r.bankAccountNumber in (select b.bankAccountNumber from BankAccount b where b.user.id = :userId)")
+    BigDecimal sumDebitsOfUser(@Param("userId") Long userId, @Param("month") Integer bookingMonth);
+
+    /**
+     * Method to sum the credits of all bank accounts of a user in the given month.
+     *
+     * @param userId       Id of the user.
+     * @param bookingMonth Month in the yyyymm format.
+     * @return Sum of the credits, zero if there are none.
+     */
+    @Query("select coalesce(sum(r.credits), 0) from MonthlyRollup r where r.bookingMonth = :month and r.bankAccountNumber in (select b.bankAccountNumber from BankAccount b where b.user.id = :userId)")
+    BigDecimal sumCreditsOfUser(@Param("userId") Long userId, @Param("month") Integer bookingMonth);
+}
@@ -0,0 +1,54 @@
+package com.ciosmak.bankapp.repository;
+
+import com.ciosmak.bankapp.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * The OutboxEventRepository interface is a Spring Data JPA repository for {@link OutboxEvent} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for reading the unpublished events, marking them as published and deleting the old published events.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see JpaRepository
+ * @see OutboxEvent
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>
+{
+    /**
+     * Method to find one batch of unpublished events in ascending id order.
+     * The query is served by the index on the published and id columns.
+     *
+     * @param pageable Size of the batch.
+     * @return ArrayList of OutboxEvent.
+     */
+    ArrayList<OutboxEvent> findByPublishedFalseOrderById(Pageable pageable);
+
+    /**
+     * Method to mark the given events as published with a single statement.
+     *
+     * @param ids Ids of the events.
+     * @return Number of events marked as published.
+     */
+    @Modifying
+    @Query("update OutboxEvent e set e.published = true where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Method to delete the published events created before the given date with a single statement.
+     * The statement is served by the index on the published and creation date columns.
+     *
+     * @param creationDate Date before which the published events are deleted.
+     * @return Number of deleted events.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.published = true and e.creationDate < :creationDate")
+    int deletePublishedBefore(@Param("creationDate") LocalDateTime creationDate);
+}
@@ -0,0 +1,42 @@
+package com.ciosmak.bankapp.repository;
+
+import com.ciosmak.bankapp.entity.StandingOrder;
+import com.ciosmak.bankapp.standing.order.DueStandingOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * The StandingOrderRepository interface is a Spring Data JPA repository for {@link StandingOrder} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for finding the due standing orders and the standing orders of a user.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see JpaRepository
+ * @see StandingOrder
+ */
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long>
+{
+    /**
+     * Method to find one batch of active standing orders whose next execution date has come, the most overdue first.
+     * The query walks the index on the active and next execution date columns, so it reads only the due standing orders, whatever the number of all standing orders.
+     *
+     * @param date     Latest next execution date that is due.
+     * @param pageable Size of the batch.
+     * @return ArrayList of DueStandingOrder.
+     */
+    @Query("select new com.ciosmak.bankapp.standing.order.DueStandingOrder(o.id, o.user.id, o.senderBankAccountNumber, o.receivingBankAccountNumber, o.amountOfMoney, o.title, o.nextExecutionDate) from StandingOrder o where o.active = true and o.nextExecutionDate <= :date order by o.nextExecutionDate, o.id")
+    ArrayList<DueStandingOrder> findDueStandingOrders(@Param("date") LocalDate date, Pageable pageable);
+
+    /**
+     * Method to find the active standing orders of a user.
+     *
+     * @param userId User id.
+     * @return ArrayList of StandingOrder.
+     */
+    ArrayList<StandingOrder> findByUserIdAndActiveTrueOrderById(Long userId);
+}
@@ -1,19 +1,35 @@
 package com.ciosmak.bankapp.repository;
 
 import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.history.HistoryBalance;
+import com.ciosmak.bankapp.settlement.AccountCredit;
+import com.ciosmak.bankapp.settlement.DueTransfer;
+import com.ciosmak.bankapp.transfer.idempotency.OriginalTransfer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
- * The PersonalDataRepository interface is a Spring Data JPA repository for {@link TransferRepository} entities.
- * It extends the {@link JpaRepository} interface and provides methods for common CRUD operations on identity documents.
+ * The TransferRepository interface is a Spring Data JPA repository for {@link Transfer} entities.
+ * It extends the {@link JpaRepository} interface and provides methods for common CRUD operations on transfers.
  * This interface also enables the use of Spring Data specific methods for querying the database.
  *
  * @author Piotr Ciosmak
  * @version 1.0
  * @see JpaRepository
- * @see TransferRepository
+ * @see Transfer
  */
 public interface TransferRepository extends JpaRepository<Transfer, Long>
 {
@@ -26,27 +42,141 @@ public interface TransferRepository extends JpaRepository<Transfer, Long>
 
     /**
      * Method to find transfers by receiving bank account number.
+     * The query is served by the index on the receiving bank account number column.
      *
      * @param receivingBankAccountNumber Receiving bank account number.
      * @return ArrayList of Transfer.
      */
     ArrayList<Transfer> findByReceivingBankAccountNumber(String receivingBankAccountNumber);
 
-
     /**
-     * Method to find transfers by bank account id or receiving bank account number.
+     * Method to find transfers by ids.
      *
-     * @param bankAccountId              Bank account id.
-     * @param receivingBankAccountNumber Receiving bank account number.
+     * @param ids Ids of the transfers.
      * @return ArrayList of Transfer.
      */
-    ArrayList<Transfer> findByBankAccountsIdOrReceivingBankAccountNumber(Long bankAccountId, String receivingBankAccountNumber);
+    ArrayList<Transfer> findByIdIn(Collection<Long> ids);
 
     /**
-     * Method to find transfers by bank account id.
+     * Method to find the newest entries of the history of the given bank account, ordered by the posting date and the id, both descending, together with the balance of the bank account right after every entry.
+     * The sent and the received transfers are read with range scans of the sender and the receiving indexes limited to the size of the page, and the balances are computed with a window function over the found entries, going back from the given balance.
+     * A sent transfer lowers the balance, unless it was sent to the same bank account and is already settled, and a received transfer raises the balance once it is settled.
      *
-     * @param bankAccountId Bank account id.
-     * @return ArrayList of Transfer.
+     * @param bankAccountId     Id of the bank account.
+     * @param bankAccountNumber Number of the bank account.
+     * @param balance           Current balance of the bank account.
+     * @param limit             Number of entries to find.
+     * @return ArrayList of HistoryBalance.
+     */
+    @Query(value = "select h.id as \"transferId\", h.outgoing as \"outgoing\", " +
+            "cast(:balance as numeric(19, 2)) - coalesce(sum(h.balance_change) over (order by h.posting_date desc, h.id desc rows between unbounded preceding and 1 preceding), 0) as \"balance\" " +
+            "from ((select t.id, t.posting_date, true as outgoing, case when t.done and t.receiving_bank_account_number = t.sender_bank_account_number then 0 else -t.amount_of_money end as balance_change " +
+            "from transfers t where t.sender_bank_account_id = :bankAccountId " +
+            "order by t.posting_date desc, t.id desc limit :limit) " +
+            "union all " +
+            "(select t.id, t.posting_date, false as outgoing, case when t.done then t.amount_of_money else 0 end as balance_change " +
+            "from transfers t where t.receiving_bank_account_number = :number and t.sender_bank_account_number <> :number " +
+            "order by t.posting_date desc, t.id desc limit :limit)) h " +
+            "order by h.posting_date desc, h.id desc limit :limit", nativeQuery = true)
+    ArrayList<HistoryBalance> findLatestHistory(@Param("bankAccountId") Long bankAccountId, @Param("number") String bankAccountNumber, @Param("balance") BigDecimal balance, @Param("limit") int limit);
+
+    /**
+     * Method to find the entries of the history of the given bank account which come after the given posting date and ids in the history, ordered by the posting date and the id, both descending, together with the balance of the bank account right after every entry.
+     * The balances are computed as in {@link #findLatestHistory(Long, String, BigDecimal, int)}, going back from the checkpoint balance carried by the cursor of the page, so the cost of the query does not depend on the number of entries before the page.
+     *
+     * @param bankAccountId      Id of the bank account.
+     * @param bankAccountNumber  Number of the bank account.
+     * @param balance            Balance of the bank account right after the first entry to find.
+     * @param postingDate        Posting date of the last entry of the previous page.
+     * @param sentTransferId     Id of the last transfer of the previous page, the sent transfers with the same posting date and a lower id are found.
+     * @param receivedTransferId Id of the last transfer of the previous page or the next one if the last entry was outgoing, the received transfers with the same posting date and a lower id are found.
+     * @param limit              Number of entries to find.
+     * @return ArrayList of HistoryBalance.
+     */
+    @Query(value = "select h.id as \"transferId\", h.outgoing as \"outgoing\", " +
+            "cast(:balance as numeric(19, 2)) - coalesce(sum(h.balance_change) over (order by h.posting_date desc, h.id desc rows between unbounded preceding and 1 preceding), 0) as \"balance\" " +
+            "from ((select t.id, t.posting_date, true as outgoing, case when t.done and t.receiving_bank_account_number = t.sender_bank_account_number then 0 else -t.amount_of_money end as balance_change " +
+            "from transfers t where t.sender_bank_account_id = :bankAccountId and t.posting_date <= :postingDate and (t.posting_date < :postingDate or t.id < :sentTransferId) " +
+            "order by t.posting_date desc, t.id desc limit :limit) " +
+            "union all " +
+            "(select t.id, t.posting_date, false as outgoing, case when t.done then t.amount_of_money else 0 end as balance_change " +
+            "from transfers t where t.receiving_bank_account_number = :number and t.sender_bank_account_number <> :number and t.posting_date <= :postingDate and (t.posting_date < :postingDate or t.id < :receivedTransferId) " +
+            "order by t.posting_date desc, t.id desc limit :limit)) h " +
+            "order by h.posting_date desc, h.id desc limit :limit", nativeQuery = true)
+    ArrayList<HistoryBalance> findHistoryBefore(@Param("bankAccountId") Long bankAccountId, @Param("number") String bankAccountNumber, @Param("balance") BigDecimal balance, @Param("postingDate") LocalDateTime postingDate, @Param("sentTransferId") Long sentTransferId, @Param("receivedTransferId") Long receivedTransferId, @Param("limit") int limit);
+
+    /**
+     * Method to stream all transfers sent or received by the bank accounts of a user, the newest first.
+     * The transfers are read from the database in chunks of the fetch size and the entities are read only, so the stream has to be consumed and closed in a transaction and the read transfers should be detached once they are processed.
+     *
+     * @param userId Id of the user.
+     * @return Stream of Transfer.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select t from Transfer t where t.senderBankAccount.id in (select b.id from BankAccount b where b.user.id = :userId) or t.receivingBankAccountNumber in (select b.bankAccountNumber from BankAccount b where b.user.id = :userId) order by t.postingDate desc, t.id desc")
+    Stream<Transfer> streamHistoryOfUser(@Param("userId") Long userId);
+
+    /**
+     * Method to find the first chunk of transfers that are not done yet and whose posting date has already passed.
+     * Transfers are returned in ascending order of the posting date and the id, which is the order of the index on the done, posting date and id columns, so the query reads only the rows of the chunk.
+     * The done column is the same for all the found transfers, it is sorted on only so the database reads the chunk in the order of the index instead of sorting all the due transfers.
+     *
+     * @param postingDate Latest posting date that should be settled.
+     * @param pageable    Size of the chunk.
+     * @return ArrayList of DueTransfer.
+     */
+    @Query("select new com.ciosmak.bankapp.settlement.DueTransfer(t.id, t.receivingBankAccountNumber, t.postingDate) from Transfer t where t.done = false and t.postingDate <= :postingDate order by t.done, t.postingDate, t.id")
+    ArrayList<DueTransfer> findDueTransfers(@Param("postingDate") LocalDateTime postingDate, Pageable pageable);
+
+    /**
+     * Method to find the next chunk of transfers that are not done yet and whose posting date has already passed, starting after the given posting date and id.
+     * Transfers are returned as in {@link #findDueTransfers(LocalDateTime, Pageable)}, so the caller can walk through all of them chunk by chunk, and every chunk is read with a range scan of the index on the done, posting date and id columns.
+     *
+     * @param postingDate     Latest posting date that should be settled.
+     * @param lastPostingDate Posting date of the last transfer from the previous chunk.
+     * @param lastId          Id of the last transfer from the previous chunk, the transfers with the same posting date and a higher id are found.
+     * @param pageable        Size of the chunk.
+     * @return ArrayList of DueTransfer.
+     */
+    @Query("select new com.ciosmak.bankapp.settlement.DueTransfer(t.id, t.receivingBankAccountNumber, t.postingDate) from Transfer t where t.done = false and t.postingDate <= :postingDate and t.postingDate >= :lastPostingDate and (t.postingDate > :lastPostingDate or t.id > :lastId) order by t.done, t.postingDate, t.id")
+    ArrayList<DueTransfer> findDueTransfersAfter(@Param("postingDate") LocalDateTime postingDate, @Param("lastPostingDate") LocalDateTime lastPostingDate, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Method to sum the amounts of the given transfers which are not done yet, grouped by the receiving bank account number.
+     *
+     * @param ids Ids of the transfers.
+     * @return ArrayList of AccountCredit.
+     */
+    @Query("select new com.ciosmak.bankapp.settlement.AccountCredit(t.receivingBankAccountNumber, sum(t.amountOfMoney), count(t)) from Transfer t where t.id in :ids and t.done = false group by t.receivingBankAccountNumber")
+    ArrayList<AccountCredit> sumPendingCredits(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Method to mark the given transfers which are not done yet as done with a single statement.
+     *
+     * @param ids Ids of the transfers.
+     * @return Number of transfers marked as done.
+     */
+    @Modifying
+    @Query("update Transfer t set t.done = true where t.id in :ids and t.done = false")
+    int markDone(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Method to find the transfer submitted with the given idempotency key.
+     * Only the id, the sender bank account number and the id of the owner of the sender bank account are read, the transfer itself is not loaded.
+     *
+     * @param idempotencyKey Idempotency key of the transfer.
+     * @return Optional of OriginalTransfer.
+     */
+    @Query("select new com.ciosmak.bankapp.transfer.idempotency.OriginalTransfer(t.idempotencyKey, t.id, t.senderBankAccountNumber, b.user.id) from Transfer t left join t.senderBankAccount b where t.idempotencyKey = :idempotencyKey")
+    Optional<OriginalTransfer> findOriginalTransfer(@Param("idempotencyKey") String idempotencyKey);
+
+    /**
+     * Method to find the transfers submitted with any of the given idempotency keys.
+     * Only the ids, the sender bank account numbers and the ids of the owners of the sender bank accounts are read, the transfers themselves are not loaded.
+     *
+     * @param idempotencyKeys Idempotency keys of the transfers.
+     * @return ArrayList of OriginalTransfer.
      */
-    ArrayList<Transfer> findByBankAccountsId(Long bankAccountId);
+    @Query("select new com.ciosmak.bankapp.transfer.idempotency.OriginalTransfer(t.idempotencyKey, t.id, t.senderBankAccountNumber, b.user.id) from Transfer t left join t.senderBankAccount b where t.idempotencyKey in :idempotencyKeys")
+    ArrayList<OriginalTransfer> findOriginalTransfers(@Param("idempotencyKeys") Collection<String> idempotencyKeys);
 }
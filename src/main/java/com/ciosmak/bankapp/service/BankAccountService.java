@@ -1,16 +1,19 @@
 package com.ciosmak.bankapp.service;
 
 import com.ciosmak.bankapp.bank.account.id.BankAccountId;
+import com.ciosmak.bankapp.dashboard.UserDataChangedEvent;
 import com.ciosmak.bankapp.entity.BankAccount;
 import com.ciosmak.bankapp.entity.PaymentCard;
 import com.ciosmak.bankapp.entity.User;
 import com.ciosmak.bankapp.exception.FatalError;
 import com.ciosmak.bankapp.exception.IncorrectBankAccountException;
+import com.ciosmak.bankapp.money.MinorUnits;
 import com.ciosmak.bankapp.repository.BankAccountRepository;
 import com.ciosmak.bankapp.repository.UserRepository;
 import com.ciosmak.bankapp.user.id.UserId;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -52,7 +55,7 @@ public class BankAccountService extends AbstractService
         User user = getUserById(userId, userRepository);
 
         BankAccount bankAccount = BankAccount.builder().
-                balance(BigDecimal.valueOf(0.0)).
+                balance(0L).
                 bankAccountNumber(bankAccountNumber).
                 internationalBankAccountNumber(prepareInternationalBankAccountNumber(bankAccountNumber)).
                 name(name).
@@ -63,6 +66,9 @@ public class BankAccountService extends AbstractService
                 interest(prepareInterest()).user(user).
                 build();
         bankAccountRepository.save(bankAccount);
+        ledgerService.open(bankAccount);
+        outboxService.bankAccountOpened(bankAccount);
+        applicationEventPublisher.publishEvent(new UserDataChangedEvent(user.getId()));
     }
 
     /**
@@ -75,7 +81,7 @@ public class BankAccountService extends AbstractService
         BankAccount bankAccount = getBankAccountById(bankAccountId, bankAccountRepository);
         System.out.println("\n---RACHUNEK BANKOWY---");
         System.out.println("Nazwa rachunku: " + bankAccount.getName());
-        System.out.println("Dostępne środki: " + bankAccount.getBalance());
+        System.out.println("Dostępne środki: " + MinorUnits.toBigDecimal(bankAccount.getBalance()));
         System.out.println("Number konta bankowego: " + bankAccount.getBankAccountNumber());
         System.out.println(showIfBankAccountIsOpen(bankAccount.isOpen()));
         System.out.println("Miesięczne utrzymanie rachunku kosztuję: " + bankAccount.getMaintenanceFee() + "zł");
@@ -94,6 +100,7 @@ public class BankAccountService extends AbstractService
         System.out.println("Aktualna nazwa rachunku: " + bankAccount.getName());
         String newName = createBankAccountName("Podaj nową nazwę rachunku: ");
         bankAccount.setName(newName);
+        outboxService.bankAccountRenamed(bankAccount);
     }
 
     /**
@@ -105,15 +112,15 @@ public class BankAccountService extends AbstractService
     public BigDecimal getBalanceFromAllBankAccounts(UserId userId)
     {
         ArrayList<BankAccount> bankAccountsList = bankAccountRepository.findByUserId(userId.getId());
-        BigDecimal balanceFromAllBankAccounts = new BigDecimal("0.0");
+        long balanceFromAllBankAccounts = 0L;
         for (var bankAccount : bankAccountsList)
         {
             if (bankAccount.isOpen())
             {
-                balanceFromAllBankAccounts = balanceFromAllBankAccounts.add(bankAccount.getBalance());
+                balanceFromAllBankAccounts += bankAccount.getBalance();
             }
         }
-        return balanceFromAllBankAccounts;
+        return MinorUnits.toBigDecimal(balanceFromAllBankAccounts);
     }
 
     /**
@@ -298,4 +305,19 @@ public class BankAccountService extends AbstractService
      * Represents an instance of PaymentCardService class
      */
     private final PaymentCardService paymentCardService;
+
+    /**
+     * ledgerService is used to take the opening balance snapshots of the new bank accounts.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * outboxService is used to publish the opened and renamed bank accounts.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * applicationEventPublisher is used to publish the changes of the bank accounts of the users, so their desktop summaries are invalidated.
+     */
+    private final ApplicationEventPublisher applicationEventPublisher;
 }
@@ -1,26 +1,38 @@
 package com.ciosmak.bankapp.service;
 
+import com.ciosmak.bankapp.dashboard.DashboardCache;
+import com.ciosmak.bankapp.dashboard.DashboardSummary;
 import com.ciosmak.bankapp.entity.BankAccount;
 import com.ciosmak.bankapp.entity.Transfer;
 import com.ciosmak.bankapp.exception.FatalError;
+import com.ciosmak.bankapp.exception.IllegalOptionSelectedException;
 import com.ciosmak.bankapp.exception.IncorrectBankAccountException;
+import com.ciosmak.bankapp.history.ExportFormat;
+import com.ciosmak.bankapp.history.HistoryBalance;
+import com.ciosmak.bankapp.history.HistoryCursor;
+import com.ciosmak.bankapp.history.HistoryEntry;
+import com.ciosmak.bankapp.history.HistoryExportWriter;
+import com.ciosmak.bankapp.history.HistoryPage;
+import com.ciosmak.bankapp.money.MinorUnits;
 import com.ciosmak.bankapp.repository.BankAccountRepository;
 import com.ciosmak.bankapp.repository.TransferRepository;
 import com.ciosmak.bankapp.user.id.UserId;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Optional;
-import java.util.Scanner;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Stream;
 
 /**
- * This service is responsible for providing history-related functionalities such as getting expenses and income for current month, and showing the history of all transactions made by the user.
+ * This service is responsible for providing history-related functionalities such as getting expenses and income for current month, and showing and exporting the history of all transactions made by the user.
  *
  * @author Piotr Ciosmak
  * @version 1.0
@@ -34,54 +46,47 @@ public class HistoryService extends AbstractService
 {
     /**
      * Returns the total expenses made by the user for the current month.
+     * The expenses are read from the monthly totals of the user's bank accounts, so the cost does not depend on the number of transfers made by the user.
      *
      * @param userId The user's unique identifier.
      * @return The total expenses made by the user for the current month.
      */
     public BigDecimal getExpensesForCurrentMonth(UserId userId)
     {
-        ArrayList<Transfer> transfersList = getAllSenderTransfersByUserId(userId);
-
-        BigDecimal expensesForCurrentMonth = BigDecimal.ZERO;
-        for (var trans : transfersList)
-        {
-            if (trans.getExecutionDate().getMonth().equals(LocalDateTime.now().getMonth()))
-            {
-                expensesForCurrentMonth = expensesForCurrentMonth.add(trans.getAmountOfMoney());
-            }
-        }
-
-        return expensesForCurrentMonth;
+        return monthlyRollupService.getDebitsOfUser(userId.getId(), YearMonth.now());
     }
 
 
     /**
-     * Returns the total amount of money received by the user in the current month
+     * Returns the total amount of money received by the user in the current month.
+     * The income is read from the monthly totals of the user's bank accounts, where a transfer is counted in the month in which it was settled.
      *
      * @param userId The ID of the user
      * @return The total amount of money received by the user in the current month
      */
     public BigDecimal getIncomeForCurrentMonth(UserId userId)
     {
-        ArrayList<Transfer> transfersList = getAllReceivingTransfersByUserId(userId);
-
-        BigDecimal expensesForCurrentMonth = BigDecimal.ZERO;
-        for (var trans : transfersList)
-        {
-            if (trans.getExecutionDate().getMonth().equals(LocalDateTime.now().getMonth()))
-            {
-                expensesForCurrentMonth = expensesForCurrentMonth.add(trans.getAmountOfMoney());
-            }
-        }
+        return monthlyRollupService.getCreditsOfUser(userId.getId(), YearMonth.now());
+    }
 
-        return expensesForCurrentMonth;
+    /**
+     * Returns the figures shown on the desktop of the user: the total balance, the expenses and the income of the current month and the numbers of open bank accounts and active payment cards.
+     * All figures are computed by one aggregate query, so the cost does not depend on the number of transfers made by the user, and the summary is remembered by the {@link DashboardCache} until the data of the user changes.
+     *
+     * @param userId the ID of the user
+     * @return the summary of the desktop of the user
+     */
+    public DashboardSummary getDashboardSummary(UserId userId)
+    {
+        YearMonth month = YearMonth.now();
+        return dashboardCache.get(userId.getId(), month, () -> bankAccountRepository.findDashboardSummary(userId.getId(), MonthlyRollupService.toBookingMonth(month)));
     }
 
     /**
      * The {@code showHistory} method is used to display the transaction history for a specific user.
      * The method takes in a {@code UserId} object as a parameter and retrieves all bank accounts associated with that user.
      * The user is then prompted to select a specific bank account to view the transaction history for, or can choose to view the history for all accounts.
-     * The method then retrieves all transactions associated with the selected bank account(s) and displays them in a formatted manner, including the transaction title, amount, date, and destination account information.
+     * The method then retrieves the newest transactions of the selected bank account(s) page by page with the {@link #getHistory(List, HistoryCursor, int)} method and displays them in a formatted manner, including the transaction title, amount, date, and destination account information.
      * If there are no transactions found for the selected bank account(s), the method will display a message indicating that there are no transactions.
      *
      * @param userId          a UserId object representing the user whose transaction history is to be displayed
@@ -90,177 +95,197 @@ public class HistoryService extends AbstractService
     public void showHistory(UserId userId, int numberOfRecords)
     {
         ArrayList<BankAccount> bankAccountsList = bankAccountRepository.findByUserId(userId.getId());
-        ArrayList<Transfer> transfersList;
-        ArrayList<LocalDateTime> dates = new ArrayList<>();
-        ArrayList<String> destinationBankAccountsInfo = new ArrayList<>();
-        char sign;
-        String data;
-        String destinationBankAccountInfo = "";
-        Optional<BankAccount> destinationBankAccount;
-
-        Long selectedBankAccountId;
+        List<BankAccount> selectedBankAccounts = bankAccountsList;
         if (numberOfRecords == Integer.MAX_VALUE)
         {
-            selectedBankAccountId = chooseOneBankAccount(bankAccountsList);
+            Long selectedBankAccountId = chooseOneBankAccount(bankAccountsList);
+            if (selectedBankAccountId != 0L)
+            {
+                selectedBankAccounts = bankAccountsList.stream().filter(bankAccount -> bankAccount.getId().equals(selectedBankAccountId)).toList();
+            }
         }
-        else
+
+        int shownRecords = 0;
+        HistoryCursor cursor = null;
+        do
         {
-            selectedBankAccountId = 0L;
+            HistoryPage historyPage = getHistory(selectedBankAccounts, cursor, Math.min(HISTORY_PAGE_SIZE, numberOfRecords - shownRecords));
+            for (var historyEntry : historyPage.getEntries())
+            {
+                System.out.println(formatHistoryEntry(historyEntry));
+            }
+            shownRecords += historyPage.getEntries().size();
+            cursor = historyPage.getNextCursor();
         }
-        if (selectedBankAccountId == 0L)
+        while (cursor != null && shownRecords < numberOfRecords);
+
+        if (shownRecords == 0)
         {
-            boolean transferListIsEmpty = true;
-            for (var bankAccount : bankAccountsList)
+            System.out.println("Brak transakcji");
+        }
+    }
+
+    /**
+     * Returns one page of the history of the given bank accounts, newest entries first, with the balance of the bank account right after every entry.
+     * For every bank account the entries are read with one query, which scans the sender and the receiving indexes limited to the size of the page and computes the running balances with a window function, starting from the current balance of the bank account on the first page and from the checkpoint balance carried by the cursor on the next ones.
+     * The entries of all bank accounts are merged in memory and their transfers are loaded with one more query, so the cost of a page depends on the size of the page and the number of bank accounts, not on the number of transfers in the history.
+     *
+     * @param bankAccounts the bank accounts whose history is to be returned
+     * @param cursor       the cursor returned with the previous page or null for the first page
+     * @param pageSize     the maximum number of entries of the page
+     * @return the page of the history
+     */
+    public HistoryPage getHistory(List<BankAccount> bankAccounts, HistoryCursor cursor, int pageSize)
+    {
+        ArrayList<ArrayList<HistoryBalance>> historyBalances = new ArrayList<>();
+        HashSet<Long> transferIds = new HashSet<>();
+        for (var bankAccount : bankAccounts)
+        {
+            ArrayList<HistoryBalance> bankAccountHistoryBalances;
+            if (cursor == null)
             {
-                transfersList = transferRepository.findByBankAccountsIdOrReceivingBankAccountNumber(bankAccount.getId(), bankAccount.getBankAccountNumber());
-                for (var transfer : transfersList)
-                {
-                    transferListIsEmpty = false;
-                    if (transfer.getSenderBankAccountNumber().equals(bankAccount.getBankAccountNumber()))
-                    {
-                        sign = '-';
-                        data = Integer.toString(transfer.getExecutionDate().getDayOfMonth()) + '.' + transfer.getExecutionDate().getMonthValue() + '.' + transfer.getExecutionDate().getYear();
-                        destinationBankAccountInfo = "z rachunku o nazwie: " + bankAccount.getName();
-                        dates.add(transfer.getPostingDate());
-                    }
-                    else
-                    {
-                        sign = '+';
-                        data = Integer.toString(transfer.getPostingDate().getDayOfMonth()) + '.' + transfer.getPostingDate().getMonthValue() + '.' + transfer.getPostingDate().getYear();
-                        destinationBankAccount = bankAccountRepository.findByBankAccountNumber(transfer.getReceivingBankAccountNumber());
-                        if (destinationBankAccount.isPresent())
-                        {
-                            destinationBankAccountInfo = "na rachunek o nazwie: " + destinationBankAccount.get().getName();
-                            dates.add(transfer.getPostingDate());
-                        }
-                        else
-                        {
-                            FatalError.exit();
-                        }
-                    }
-                    destinationBankAccountsInfo.add(String.format("%1$-" + 30 + "s", transfer.getTitle()) + "\t" + sign + String.format("%1$-" + 15 + "s", transfer.getAmountOfMoney()) + "\t" + String.format("%1$-" + 10 + "s", data) + "\t" + destinationBankAccountInfo);
-                }
+                bankAccountHistoryBalances = transferRepository.findLatestHistory(bankAccount.getId(), bankAccount.getBankAccountNumber(), MinorUnits.toBigDecimal(bankAccount.getBalance()), pageSize + 1);
             }
-            if (transferListIsEmpty)
+            else
             {
-                System.out.println("Brak transakcji");
+                BigDecimal balance = cursor.getBalances().getOrDefault(bankAccount.getId(), MinorUnits.toBigDecimal(bankAccount.getBalance()));
+                // The outgoing entry of a transfer comes before its incoming entry, so after an outgoing entry the incoming entry of the same transfer is still to be shown.
+                long receivedTransferId = cursor.isOutgoing() ? cursor.getTransferId() + 1 : cursor.getTransferId();
+                bankAccountHistoryBalances = transferRepository.findHistoryBefore(bankAccount.getId(), bankAccount.getBankAccountNumber(), balance, cursor.getPostingDate(), cursor.getTransferId(), receivedTransferId, pageSize + 1);
             }
-        }
-        else
-        {
-            Optional<BankAccount> bankAccount = bankAccountRepository.findById(selectedBankAccountId);
-            if (bankAccount.isPresent())
+            historyBalances.add(bankAccountHistoryBalances);
+            for (var historyBalance : bankAccountHistoryBalances)
             {
-                transfersList = transferRepository.findByBankAccountsIdOrReceivingBankAccountNumber(bankAccount.get().getId(), bankAccount.get().getBankAccountNumber());
-                if (!transfersList.isEmpty())
-                {
-                    for (var transfer : transfersList)
-                    {
-                        if (transfer.getSenderBankAccountNumber().equals(bankAccount.get().getBankAccountNumber()))
-                        {
-                            sign = '-';
-                            data = Integer.toString(transfer.getExecutionDate().getDayOfMonth()) + '.' + transfer.getExecutionDate().getMonthValue() + '.' + transfer.getExecutionDate().getYear();
-                            destinationBankAccountInfo = "z rachunku o nazwie: " + bankAccount.get().getName();
-                            dates.add(transfer.getPostingDate());
-                        }
-                        else
-                        {
-                            sign = '+';
-                            data = Integer.toString(transfer.getPostingDate().getDayOfMonth()) + '.' + transfer.getPostingDate().getMonthValue() + '.' + transfer.getPostingDate().getYear();
-                            destinationBankAccount = bankAccountRepository.findByBankAccountNumber(transfer.getReceivingBankAccountNumber());
-                            if (destinationBankAccount.isPresent())
-                            {
-                                destinationBankAccountInfo = "na rachunek o nazwie: " + destinationBankAccount.get().getName();
-                                dates.add(transfer.getPostingDate());
-                            }
-                            else
-                            {
-                                FatalError.exit();
-                            }
-                        }
-                        destinationBankAccountsInfo.add((String.format("%1$-" + 30 + "s", transfer.getTitle()) + "\t" + sign + String.format("%1$-" + 15 + "s", transfer.getAmountOfMoney()) + "\t" + String.format("%1$-" + 10 + "s", data) + "\t" + destinationBankAccountInfo));
-                    }
-                }
-                else
-                {
-                    System.out.println("Brak transakcji");
-                }
+                transferIds.add(historyBalance.getTransferId());
             }
-            else
+        }
+
+        HashMap<Long, Transfer> transfers = new HashMap<>();
+        if (!transferIds.isEmpty())
+        {
+            for (var transfer : transferRepository.findByIdIn(transferIds))
             {
-                FatalError.exit();
+                transfers.put(transfer.getId(), transfer);
             }
         }
-        if (dates.isEmpty())
+        ArrayList<HistoryEntry> historyEntries = new ArrayList<>();
+        for (int i = 0; i < bankAccounts.size(); ++i)
         {
-            return;
+            for (var historyBalance : historyBalances.get(i))
+            {
+                historyEntries.add(new HistoryEntry(transfers.get(historyBalance.getTransferId()), bankAccounts.get(i), historyBalance.getOutgoing(), historyBalance.getBalance()));
+            }
         }
 
-        ArrayList<ArrayList<Object>> dateAndInfo = new ArrayList<>();
-        for (int i = 0; i < dates.size(); ++i)
+        historyEntries.sort(HISTORY_ORDER);
+        if (historyEntries.size() <= pageSize)
         {
-            ArrayList<Object> list = new ArrayList<>();
-            list.add(dates.get(i));
-            list.add(destinationBankAccountsInfo.get(i));
-            dateAndInfo.add(list);
+            return new HistoryPage(historyEntries, null);
         }
+        List<HistoryEntry> pageEntries = new ArrayList<>(historyEntries.subList(0, pageSize));
+        HistoryEntry lastEntry = pageEntries.get(pageSize - 1);
 
-        Collections.sort(dateAndInfo, (o1, o2) -> ((LocalDateTime) o2.get(0)).compareTo((LocalDateTime) o1.get(0)));
-
-        for (int i = 0; i < dateAndInfo.size(); ++i)
+        // The balance right after the first entry of a bank account on the next page is the checkpoint of the bank account, and every bank account with more entries has its next entry among the entries read for this page.
+        HashMap<Long, BigDecimal> balances = new HashMap<>();
+        for (var historyEntry : historyEntries.subList(pageSize, historyEntries.size()))
         {
-            if (i == numberOfRecords)
-            {
-                break;
-            }
-            System.out.println(dateAndInfo.get(i).get(1));
+            balances.putIfAbsent(historyEntry.getBankAccount().getId(), historyEntry.getBalance());
         }
+        return new HistoryPage(pageEntries, new HistoryCursor(lastEntry.getTransfer().getPostingDate(), lastEntry.getTransfer().getId(), lastEntry.isOutgoing(), Collections.unmodifiableMap(balances)));
     }
 
     /**
-     * Retrieves all the transfers where the user with the given userId is the sender.
+     * The exportHistory method is used to export the whole history of the user to a file. The method prompts the user for the format and the path of the file, exports the history and displays the number of exported entries.
      *
-     * @param userId the userId of the user whose transfers are to be retrieved
-     * @return a list of transfers where the user with the given userId is the sender
+     * @param userId the ID of the user whose history is to be exported
      */
-    private ArrayList<Transfer> getAllSenderTransfersByUserId(UserId userId)
+    @Transactional(readOnly = true)
+    public void exportHistory(UserId userId)
     {
-        ArrayList<BankAccount> bankAccountsList = bankAccountRepository.findByUserId(userId.getId());
-        ArrayList<Transfer> transfersList = new ArrayList<>();
-        for (var bankAccount : bankAccountsList)
+        System.out.println("\n---EKSPORT HISTORII---");
+        ExportFormat exportFormat = chooseExportFormat();
+        System.out.print("Podaj ścieżkę do pliku: ");
+        scanner = new Scanner(System.in);
+        String fileName = scanner.nextLine();
+        try
+        {
+            long numberOfEntries = exportHistory(Path.of(fileName.trim()), userId.getId(), exportFormat);
+            System.out.println("Wyeksportowane operacje: " + numberOfEntries);
+        }
+        catch (IOException | InvalidPathException e)
         {
-            transfersList.addAll(transferRepository.findByBankAccountsId(bankAccount.getId()));
+            System.err.println("Nie udało się zapisać pliku.\nSprawdź ścieżkę do pliku i spróbuj ponownie.");
+            System.err.flush();
         }
-        return transfersList;
     }
 
     /**
-     * Retrieves all the transfers where the given user's bank accounts are the receiving accounts.
-     * Only the transfers that are marked as done are added to the list.
+     * Exports the whole history of the user to a file, newest entries first.
+     * The transfers are streamed from the database and every transfer is written and detached before the next one is read, so the export runs in constant memory regardless of the length of the history.
      *
-     * @param userId the id of the user
-     * @return a list of done transfers where the user's bank accounts are the receiving accounts
+     * @param file         the file to write
+     * @param userId       the ID of the user whose history is to be exported
+     * @param exportFormat the format of the file
+     * @return the number of exported entries
+     * @throws IOException if the file cannot be written
      */
-    private ArrayList<Transfer> getAllReceivingTransfersByUserId(UserId userId)
+    @Transactional(readOnly = true)
+    public long exportHistory(Path file, Long userId, ExportFormat exportFormat) throws IOException
     {
-        ArrayList<BankAccount> bankAccountsList = bankAccountRepository.findByUserId(userId.getId());
-        ArrayList<Transfer> transfersList = new ArrayList<>();
-        ArrayList<Transfer> transfersListTmp;
-        for (var bankAccount : bankAccountsList)
+        HashMap<String, BankAccount> bankAccounts = new HashMap<>();
+        for (var bankAccount : bankAccountRepository.findByUserId(userId))
+        {
+            bankAccounts.put(bankAccount.getBankAccountNumber(), bankAccount);
+        }
+
+        try (Stream<Transfer> transfers = transferRepository.streamHistoryOfUser(userId); HistoryExportWriter historyExportWriter = new HistoryExportWriter(file, exportFormat))
         {
-            transfersListTmp = (transferRepository.findByReceivingBankAccountNumber(bankAccount.getBankAccountNumber()));
-            if (!transfersListTmp.isEmpty())
+            Iterator<Transfer> iterator = transfers.iterator();
+            while (iterator.hasNext())
             {
-                for (var transfer : transfersListTmp)
+                Transfer transfer = iterator.next();
+                BankAccount senderBankAccount = bankAccounts.get(transfer.getSenderBankAccountNumber());
+                BankAccount receivingBankAccount = bankAccounts.get(transfer.getReceivingBankAccountNumber());
+                if (senderBankAccount != null)
                 {
-                    if (transfer.isDone())
-                    {
-                        transfersList.add(transfer);
-                    }
+                    historyExportWriter.write(new HistoryEntry(transfer, senderBankAccount, true, null));
+                }
+                if (receivingBankAccount != null && receivingBankAccount != senderBankAccount)
+                {
+                    historyExportWriter.write(new HistoryEntry(transfer, receivingBankAccount, false, null));
                 }
+                entityManager.detach(transfer);
             }
+            return historyExportWriter.getNumberOfEntries();
+        }
+    }
+
+    /**
+     * Formats one entry of the history as a line with the title, the amount, the date, the balance of the bank account after the entry and the name of the bank account.
+     * The bank account of an entry is the sender bank account of an outgoing transfer and the receiving bank account of an incoming one, and it is already loaded with the page, so formatting an entry does not query the database.
+     *
+     * @param historyEntry the entry of the history
+     * @return the formatted line
+     */
+    private String formatHistoryEntry(HistoryEntry historyEntry)
+    {
+        Transfer transfer = historyEntry.getTransfer();
+        char sign;
+        String data;
+        String destinationBankAccountInfo;
+        if (historyEntry.isOutgoing())
+        {
+            sign = '-';
+            data = Integer.toString(transfer.getExecutionDate().getDayOfMonth()) + '.' + transfer.getExecutionDate().getMonthValue() + '.' + transfer.getExecutionDate().getYear();
+            destinationBankAccountInfo = "z rachunku o nazwie: " + historyEntry.getBankAccount().getName();
+        }
+        else
+        {
+            sign = '+';
+            data = Integer.toString(transfer.getPostingDate().getDayOfMonth()) + '.' + transfer.getPostingDate().getMonthValue() + '.' + transfer.getPostingDate().getYear();
+            destinationBankAccountInfo = "na rachunek o nazwie: " + historyEntry.getBankAccount().getName();
         }
-        return transfersList;
+        return String.format("%1$-" + 30 + "s", transfer.getTitle()) + "\t" + sign + String.format("%1$-" + 15 + "s", transfer.getAmountOfMoney()) + "\t" + String.format("%1$-" + 10 + "s", data) + "\t" + String.format("%1$-" + 22 + "s", "saldo: " + historyEntry.getBalance()) + "\t" + destinationBankAccountInfo;
     }
 
     /**
@@ -314,6 +339,61 @@ public class HistoryService extends AbstractService
         }
     }
 
+    /**
+     * Allows the user to choose the format of the exported file.
+     *
+     * @return the selected format
+     */
+    private ExportFormat chooseExportFormat()
+    {
+        while (true)
+        {
+            try
+            {
+                System.out.println("\n---WYBIERZ FORMAT PLIKU---");
+                System.out.println("1. CSV");
+                System.out.println("2. JSON");
+                System.out.print("Wybieram: ");
+                int selectedFormat = scanner.nextInt();
+                switch (selectedFormat)
+                {
+                    case 1 ->
+                    {
+                        return ExportFormat.CSV;
+                    }
+                    case 2 ->
+                    {
+                        return ExportFormat.JSON;
+                    }
+                    default -> throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 2.\nSpróbuj ponownie.\n", "");
+                }
+            }
+            catch (IllegalOptionSelectedException e)
+            {
+                scanner = new Scanner(System.in);
+                e.show();
+            }
+            catch (InputMismatchException e)
+            {
+                scanner = new Scanner(System.in);
+                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do 2.\nSpróbuj ponownie.");
+                System.err.flush();
+            }
+        }
+    }
+
+    /**
+     * The order of the history: the newest posting date first, then the highest transfer id, then the outgoing entry of a transfer before its incoming entry.
+     */
+    private static final Comparator<HistoryEntry> HISTORY_ORDER = Comparator.comparing((HistoryEntry historyEntry) -> historyEntry.getTransfer().getPostingDate()).
+            thenComparing(historyEntry -> historyEntry.getTransfer().getId()).
+            thenComparing(historyEntry -> historyEntry.isOutgoing()).reversed();
+
+    /**
+     * Number of entries of the history read with one page when the whole history is shown.
+     */
+    private static final int HISTORY_PAGE_SIZE = 50;
+
     /**
      * bankAccountRepository is an instance variable of type BankAccountRepository, used to access and manipulate bank account data in the database.
      */
@@ -324,4 +404,19 @@ public class HistoryService extends AbstractService
      * transferRepository is an instance variable of type TransferRepository, used to access and manipulate transfer data in the database.
      */
     private final TransferRepository transferRepository;
+
+    /**
+     * monthlyRollupService is used to read the monthly totals of the user's bank accounts.
+     */
+    private final MonthlyRollupService monthlyRollupService;
+
+    /**
+     * dashboardCache remembers the desktop summaries of the users.
+     */
+    private final DashboardCache dashboardCache;
+
+    /**
+     * entityManager is used to detach the exported transfers, so they are not kept in the persistence context until the end of the export.
+     */
+    private final EntityManager entityManager;
 }
@@ -0,0 +1,241 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor;
+import com.ciosmak.bankapp.entity.BalanceSnapshot;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.LedgerEntry;
+import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.ledger.LedgerEntryType;
+import com.ciosmak.bankapp.ledger.Reconciliation;
+import com.ciosmak.bankapp.money.MinorUnits;
+import com.ciosmak.bankapp.repository.BalanceSnapshotRepository;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * The {@code LedgerService} class keeps the append-only ledger of the bank accounts. Every change of a balance is booked as a ledger entry, a debit when a transfer is made and a credit when transfers are settled, in the same transaction as the change of the balance.
+ * The ledger entries are never updated, and the balances are periodically written down as balance snapshots, so the balance of a bank account at any time after its first snapshot is the balance of the last snapshot taken before that time plus the entries booked after the snapshot.
+ * Every entry is also added to the monthly totals of its bank account kept by the {@link MonthlyRollupService}.
+ * The entries of a bank account are numbered by the ledger sequence kept in the bank account row, which is advanced in the same optimistically locked update as the balance, so the sequence numbers are committed in order even by many processes sharing the database.
+ * A snapshot records the ledger sequence read together with the balance, and the entries booked after the snapshot always have greater sequence numbers.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.ledger.LedgerSnapshotScheduler
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+@Service
+public class LedgerService
+{
+    /**
+     * Books the debit of the sender bank account of a made transfer.
+     *
+     * @param senderBankAccount the sender bank account, already debited
+     * @param transfer          the made transfer
+     */
+    public void debit(BankAccount senderBankAccount, Transfer transfer)
+    {
+        ledgerEntryRepository.save(LedgerEntry.builder().
+                bankAccountNumber(transfer.getSenderBankAccountNumber()).
+                sequenceNumber(nextSequenceNumber(senderBankAccount)).
+                type(LedgerEntryType.DEBIT).
+                amountOfMoney(transfer.getAmountOfMoney()).
+                bookingDate(transfer.getExecutionDate()).
+                transferId(transfer.getId()).
+                build());
+        monthlyRollupService.addDebit(transfer.getSenderBankAccountNumber(), transfer.getExecutionDate(), transfer.getAmountOfMoney());
+    }
+
+    /**
+     * Books the credit of a bank account receiving settled transfers. The transfers settled together are booked as a single entry.
+     *
+     * @param bankAccount   the receiving bank account, already credited
+     * @param amountOfMoney the sum of the settled transfers
+     */
+    public void credit(BankAccount bankAccount, BigDecimal amountOfMoney)
+    {
+        String bankAccountNumber = bankAccount.getBankAccountNumber();
+        LocalDateTime bookingDate = LocalDateTime.now();
+        ledgerEntryRepository.save(LedgerEntry.builder().
+                bankAccountNumber(bankAccountNumber).
+                sequenceNumber(nextSequenceNumber(bankAccount)).
+                type(LedgerEntryType.CREDIT).
+                amountOfMoney(amountOfMoney).
+                bookingDate(bookingDate).
+                build());
+        monthlyRollupService.addCredit(bankAccountNumber, bookingDate, amountOfMoney);
+    }
+
+    /**
+     * Takes the opening balance snapshot of a new bank account, so its balance can be computed from the ledger for any time after its creation.
+     *
+     * @param bankAccount the new bank account
+     */
+    public void open(BankAccount bankAccount)
+    {
+        balanceSnapshotRepository.save(BalanceSnapshot.builder().
+                bankAccountNumber(bankAccount.getBankAccountNumber()).
+                balance(MinorUnits.toBigDecimal(bankAccount.getBalance())).
+                snapshotDate(LocalDateTime.now()).
+                lastSequenceNumber(bankAccount.getLedgerSequence()).
+                build());
+    }
+
+    /**
+     * Computes the balance of a bank account at the given time from the last balance snapshot taken before that time and the ledger entries booked after the snapshot.
+     *
+     * @param bankAccountNumber the bank account number
+     * @param time              the time of the balance
+     * @return the balance at the given time or an empty optional if the bank account had no balance snapshot at that time
+     */
+    @Transactional(readOnly = true)
+    public Optional<BigDecimal> getBalanceAt(String bankAccountNumber, LocalDateTime time)
+    {
+        Optional<BalanceSnapshot> balanceSnapshot = balanceSnapshotRepository.findFirstByBankAccountNumberAndSnapshotDateLessThanEqualOrderBySnapshotDateDescIdDesc(bankAccountNumber, time);
+        return balanceSnapshot.map(snapshot -> snapshot.getBalance().add(ledgerEntryRepository.sumEntriesBookedUntil(bankAccountNumber, snapshot.getLastSequenceNumber(), time)));
+    }
+
+    /**
+     * Compares the balance of a bank account with the balance computed from its last balance snapshot and the ledger entries booked after it.
+     *
+     * @param bankAccountNumber the bank account number
+     * @return the result of the reconciliation
+     * @throws IllegalArgumentException if there is no bank account with the given number
+     */
+    @Transactional(readOnly = true)
+    public Reconciliation reconcile(String bankAccountNumber)
+    {
+        BankAccount bankAccount = bankAccountRepository.findByBankAccountNumber(bankAccountNumber).orElseThrow(() -> new IllegalArgumentException("Unknown bank account " + bankAccountNumber));
+        BigDecimal ledgerBalance = balanceSnapshotRepository.findFirstByBankAccountNumberOrderBySnapshotDateDescIdDesc(bankAccountNumber).
+                map(snapshot -> snapshot.getBalance().add(ledgerEntryRepository.sumEntries(bankAccountNumber, snapshot.getLastSequenceNumber(), bankAccount.getLedgerSequence()))).
+                orElse(null);
+        return new Reconciliation(bankAccountNumber, MinorUnits.toBigDecimal(bankAccount.getBalance()), ledgerBalance);
+    }
+
+    /**
+     * Takes the balance snapshots of all bank accounts which have new ledger entries since their last snapshot, and the opening snapshots of the bank accounts without any snapshot.
+     * The bank account numbers are read in chunks and every snapshot is taken in its own transaction.
+     * A snapshot is computed from the ledger, and a bank account whose balance does not match the ledger is reported in the log.
+     *
+     * @return the number of taken snapshots
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int takeSnapshots()
+    {
+        int snapshots = 0;
+        String lastBankAccountNumber = "";
+        ArrayList<String> bankAccountNumbersList;
+        do
+        {
+            bankAccountNumbersList = bankAccountRepository.findBankAccountNumbersAfter(lastBankAccountNumber, PageRequest.of(0, snapshotChunkSize));
+            for (var bankAccountNumber : bankAccountNumbersList)
+            {
+                if (optimisticRetryExecutor.execute(() -> takeSnapshot(bankAccountNumber)))
+                {
+                    ++snapshots;
+                }
+                lastBankAccountNumber = bankAccountNumber;
+            }
+        } while (bankAccountNumbersList.size() == snapshotChunkSize);
+        return snapshots;
+    }
+
+    /**
+     * Takes the balance snapshot of a bank account, if it has new ledger entries since its last snapshot or no snapshot at all.
+     *
+     * @param bankAccountNumber the bank account number
+     * @return true if the snapshot was taken, false otherwise
+     */
+    private boolean takeSnapshot(String bankAccountNumber)
+    {
+        Optional<BankAccount> bankAccount = bankAccountRepository.findByBankAccountNumber(bankAccountNumber);
+        if (bankAccount.isEmpty())
+        {
+            return false;
+        }
+        long lastSequenceNumber = bankAccount.get().getLedgerSequence();
+        BigDecimal bankAccountBalance = MinorUnits.toBigDecimal(bankAccount.get().getBalance());
+        Optional<BalanceSnapshot> lastBalanceSnapshot = balanceSnapshotRepository.findFirstByBankAccountNumberOrderBySnapshotDateDescIdDesc(bankAccountNumber);
+        BigDecimal balance;
+        if (lastBalanceSnapshot.isEmpty())
+        {
+            balance = bankAccountBalance;
+        }
+        else if (lastBalanceSnapshot.get().getLastSequenceNumber() < lastSequenceNumber)
+        {
+            balance = lastBalanceSnapshot.get().getBalance().add(ledgerEntryRepository.sumEntries(bankAccountNumber, lastBalanceSnapshot.get().getLastSequenceNumber(), lastSequenceNumber));
+            if (balance.compareTo(bankAccountBalance) != 0)
+            {
+                log.warn("Balance of bank account {} is {} but the ledger says {}", bankAccountNumber, bankAccountBalance, balance);
+            }
+        }
+        else
+        {
+            return false;
+        }
+        balanceSnapshotRepository.save(BalanceSnapshot.builder().
+                bankAccountNumber(bankAccountNumber).
+                balance(balance).
+                snapshotDate(LocalDateTime.now()).
+                lastSequenceNumber(lastSequenceNumber).
+                build());
+        return true;
+    }
+
+    /**
+     * Advances the ledger sequence of a bank account. The new value is saved with the balance of the bank account, so an optimistic locking conflict on the bank account also rejects a duplicated sequence number.
+     *
+     * @param bankAccount the bank account
+     * @return the sequence number of the next ledger entry of the bank account
+     */
+    private long nextSequenceNumber(BankAccount bankAccount)
+    {
+        bankAccount.setLedgerSequence(bankAccount.getLedgerSequence() + 1);
+        return bankAccount.getLedgerSequence();
+    }
+
+    /**
+     * ledgerEntryRepository is an instance variable of type LedgerEntryRepository, used to append and sum the ledger entries.
+     */
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    /**
+     * balanceSnapshotRepository is an instance variable of type BalanceSnapshotRepository, used to access and save the balance snapshots.
+     */
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+
+    /**
+     * monthlyRollupService is used to add the booked entries to the monthly totals of the bank accounts.
+     */
+    private final MonthlyRollupService monthlyRollupService;
+
+    /**
+     * bankAccountRepository is an instance variable of type BankAccountRepository, used to access bank account data in the database.
+     */
+    private final BankAccountRepository bankAccountRepository;
+
+    /**
+     * optimisticRetryExecutor is used to take every balance snapshot in its own transaction.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * snapshotChunkSize is the number of bank accounts read at once by the snapshot job.
+     */
+    @Value("${bank.ledger.snapshot-chunk-size}")
+    private int snapshotChunkSize;
+}
@@ -0,0 +1,159 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.entity.MonthlyRollup;
+import com.ciosmak.bankapp.repository.MonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+
+/**
+ * The {@code MonthlyRollupService} class keeps the monthly totals of the debits and the credits of every bank account, so the figures of the current month do not have to be computed from all the transfers of a user.
+ * The totals are updated in the transaction which changes the balance, for the month in which the change is booked. The bank account is locked by the account lock manager at that time, and the totals are versioned, so an update racing with another process sharing the database fails with an optimistic locking conflict.
+ * The totals of a month are inserted by the first transaction booking an entry in it, so two processes booking the first entries of the same bank account at the same time both try to insert them and one of them violates the unique constraint on the bank account number and month.
+ * Both failures end the whole transaction, which is repeated by the {@link com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor} running every balance change, and the repeated attempt reads the totals saved by the other process.
+ * The totals read in a transaction are kept in a map bound to the transaction, so a batch booking many entries of the same bank account reads its totals once and sums the entries in memory.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see MonthlyRollup
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+@Service
+public class MonthlyRollupService
+{
+    /**
+     * Adds a debit of a bank account to the totals of the month in which it was booked.
+     *
+     * @param bankAccountNumber the bank account number
+     * @param bookingDate       the booking date of the debit
+     * @param amountOfMoney     the amount of the debit
+     */
+    public void addDebit(String bankAccountNumber, LocalDateTime bookingDate, BigDecimal amountOfMoney)
+    {
+        MonthlyRollup monthlyRollup = getMonthlyRollup(bankAccountNumber, bookingDate);
+        monthlyRollup.setDebits(monthlyRollup.getDebits().add(amountOfMoney));
+    }
+
+    /**
+     * Adds a credit of a bank account to the totals of the month in which it was booked.
+     *
+     * @param bankAccountNumber the bank account number
+     * @param bookingDate       the booking date of the credit
+     * @param amountOfMoney     the amount of the credit
+     */
+    public void addCredit(String bankAccountNumber, LocalDateTime bookingDate, BigDecimal amountOfMoney)
+    {
+        MonthlyRollup monthlyRollup = getMonthlyRollup(bankAccountNumber, bookingDate);
+        monthlyRollup.setCredits(monthlyRollup.getCredits().add(amountOfMoney));
+    }
+
+    /**
+     * Returns the sum of the debits of all bank accounts of a user in the given month.
+     *
+     * @param userId the id of the user
+     * @param month  the month
+     * @return the sum of the debits
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getDebitsOfUser(Long userId, YearMonth month)
+    {
+        return monthlyRollupRepository.sumDebitsOfUser(userId, toBookingMonth(month));
+    }
+
+    /**
+     * Returns the sum of the credits of all bank accounts of a user in the given month.
+     *
+     * @param userId the id of the user
+     * @param month  the month
+     * @return the sum of the credits
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getCreditsOfUser(Long userId, YearMonth month)
+    {
+        return monthlyRollupRepository.sumCreditsOfUser(userId, toBookingMonth(month));
+    }
+
+    /**
+     * Converts a month to the number under which its totals are stored, for example 202610 for October 2026.
+     *
+     * @param month the month
+     * @return the month in the yyyymm format
+     */
+    public static Integer toBookingMonth(YearMonth month)
+    {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    /**
+     * Returns the totals of a bank account in the month of the given date, saving empty totals if the bank account has none in that month yet.
+     *
+     * @param bankAccountNumber the bank account number
+     * @param bookingDate       the booking date
+     * @return the managed totals of the bank account in the month
+     */
+    private MonthlyRollup getMonthlyRollup(String bankAccountNumber, LocalDateTime bookingDate)
+    {
+        Integer bookingMonth = toBookingMonth(YearMonth.from(bookingDate));
+        return getTransactionMonthlyRollups().computeIfAbsent(bankAccountNumber + ":" + bookingMonth, key -> monthlyRollupRepository.findByBankAccountNumberAndBookingMonth(bankAccountNumber, bookingMonth).
+                orElseGet(() -> monthlyRollupRepository.save(MonthlyRollup.builder().
+                        bankAccountNumber(bankAccountNumber).
+                        bookingMonth(bookingMonth).
+                        debits(BigDecimal.ZERO).
+                        credits(BigDecimal.ZERO).
+                        build())));
+    }
+
+    /**
+     * Returns the totals used in the current transaction, by the bank account number and month. The map is bound to the transaction when it is first needed, unbound when the transaction is suspended or completed and bound again when it is resumed.
+     *
+     * @return the managed totals of the current transaction
+     */
+    @SuppressWarnings("unchecked")
+    private HashMap<String, MonthlyRollup> getTransactionMonthlyRollups()
+    {
+        HashMap<String, MonthlyRollup> monthlyRollups = (HashMap<String, MonthlyRollup>) TransactionSynchronizationManager.getResource(this);
+        if (monthlyRollups == null)
+        {
+            HashMap<String, MonthlyRollup> transactionMonthlyRollups = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, transactionMonthlyRollups);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void suspend()
+                {
+                    TransactionSynchronizationManager.unbindResource(MonthlyRollupService.this);
+                }
+
+                @Override
+                public void resume()
+                {
+                    TransactionSynchronizationManager.bindResource(MonthlyRollupService.this, transactionMonthlyRollups);
+                }
+
+                @Override
+                public void afterCompletion(int status)
+                {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MonthlyRollupService.this);
+                }
+            });
+            monthlyRollups = transactionMonthlyRollups;
+        }
+        return monthlyRollups;
+    }
+
+    /**
+     * monthlyRollupRepository is used to update and to sum the monthly totals.
+     */
+    private final MonthlyRollupRepository monthlyRollupRepository;
+}
@@ -0,0 +1,157 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.OutboxEvent;
+import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.outbox.OutboxEventType;
+import com.ciosmak.bankapp.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * The {@code OutboxService} class writes the events about the changes of transfers and bank accounts to the outbox table.
+ * The events are written in the transaction making the change, so an event exists if and only if the change was committed, and they are published later by the {@link com.ciosmak.bankapp.outbox.OutboxPublisher}.
+ * The payload of an event is a small JSON object with the data of the change.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.outbox.OutboxSubscriber
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+@Service
+public class OutboxService
+{
+    /**
+     * Writes the event about a made transfer.
+     *
+     * @param transfer the made transfer
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transferMade(Transfer transfer)
+    {
+        record(OutboxEventType.TRANSFER_MADE, transfer.getSenderBankAccountNumber(), "{\"transferId\":" + transfer.getId() + ",\"receivingBankAccountNumber\":\"" + transfer.getReceivingBankAccountNumber() + "\",\"amountOfMoney\":" + transfer.getAmountOfMoney().toPlainString() + ",\"executionDate\":\"" + transfer.getExecutionDate() + "\",\"postingDate\":\"" + transfer.getPostingDate() + "\"}");
+    }
+
+    /**
+     * Writes the event about settled transfers credited to a bank account.
+     *
+     * @param bankAccountNumber the receiving bank account number
+     * @param amountOfMoney     the sum of the settled transfers
+     * @param numberOfTransfers the number of the settled transfers
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfersSettled(String bankAccountNumber, BigDecimal amountOfMoney, long numberOfTransfers)
+    {
+        record(OutboxEventType.TRANSFERS_SETTLED, bankAccountNumber, "{\"amountOfMoney\":" + amountOfMoney.toPlainString() + ",\"numberOfTransfers\":" + numberOfTransfers + "}");
+    }
+
+    /**
+     * Writes the event about an opened bank account.
+     *
+     * @param bankAccount the opened bank account
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bankAccountOpened(BankAccount bankAccount)
+    {
+        record(OutboxEventType.BANK_ACCOUNT_OPENED, bankAccount.getBankAccountNumber(), "{\"userId\":" + bankAccount.getUser().getId() + "}");
+    }
+
+    /**
+     * Writes the event about a renamed bank account.
+     *
+     * @param bankAccount the renamed bank account
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bankAccountRenamed(BankAccount bankAccount)
+    {
+        record(OutboxEventType.BANK_ACCOUNT_RENAMED, bankAccount.getBankAccountNumber(), "{\"userId\":" + bankAccount.getUser().getId() + "}");
+    }
+
+    /**
+     * Reads the oldest batch of unpublished events.
+     *
+     * @return the unpublished events, in ascending id order
+     */
+    @Transactional(readOnly = true)
+    public ArrayList<OutboxEvent> findUnpublishedEvents()
+    {
+        return outboxEventRepository.findByPublishedFalseOrderById(PageRequest.of(0, batchSize));
+    }
+
+    /**
+     * Marks the given events as published.
+     *
+     * @param ids the ids of the published events
+     */
+    public void markPublished(Collection<Long> ids)
+    {
+        outboxEventRepository.markPublished(ids);
+    }
+
+    /**
+     * Deletes the published events older than the retention period.
+     *
+     * @return the number of deleted events
+     */
+    public int purgePublishedEvents()
+    {
+        return outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention, ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Returns the number of events published in one batch.
+     *
+     * @return the size of a batch
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Writes an event to the outbox.
+     *
+     * @param type              the type of the event
+     * @param bankAccountNumber the bank account number the event is about
+     * @param payload           the data of the event
+     */
+    private void record(OutboxEventType type, String bankAccountNumber, String payload)
+    {
+        outboxEventRepository.save(OutboxEvent.builder().
+                type(type).
+                bankAccountNumber(bankAccountNumber).
+                payload(payload).
+                creationDate(LocalDateTime.now()).
+                build());
+    }
+
+    /**
+     * outboxEventRepository is an instance variable of type OutboxEventRepository, used to write and read the outbox events.
+     */
+    private final OutboxEventRepository outboxEventRepository;
+
+    /**
+     * batchSize is the number of events published in one batch.
+     */
+    @Value("${bank.outbox.batch-size}")
+    private int batchSize;
+
+    /**
+     * retention is the time in milliseconds for which the published events are kept in the outbox.
+     */
+    @Value("${bank.outbox.retention}")
+    private long retention;
+}
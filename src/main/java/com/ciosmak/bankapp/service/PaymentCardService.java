@@ -1,5 +1,6 @@
 package com.ciosmak.bankapp.service;
 
+import com.ciosmak.bankapp.dashboard.UserDataChangedEvent;
 import com.ciosmak.bankapp.entity.BankAccount;
 import com.ciosmak.bankapp.entity.PaymentCard;
 import com.ciosmak.bankapp.entity.User;
@@ -14,6 +15,7 @@ import com.ciosmak.bankapp.repository.UserRepository;
 import com.ciosmak.bankapp.user.id.UserId;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -186,6 +188,7 @@ public class PaymentCardService extends AbstractPaymentCardService
     public void blockPermanently(PaymentCardId paymentCardId)
     {
         paymentCardRepository.getReferenceById(paymentCardId.getId()).getStatus().blockPermanently(paymentCardId, paymentCardRepository);
+        bankAccountRepository.findUserIdByPaymentCardId(paymentCardId.getId()).ifPresent(userId -> applicationEventPublisher.publishEvent(new UserDataChangedEvent(userId)));
     }
 
     /**
@@ -428,4 +431,9 @@ public class PaymentCardService extends AbstractPaymentCardService
      * bankAccountRepository is an instance variable of type BankAccountRepository, used to access and manipulate bank account data in the database.
      */
     private final BankAccountRepository bankAccountRepository;
+
+    /**
+     * applicationEventPublisher is used to publish the changes of the payment cards of the users, so their desktop summaries are invalidated.
+     */
+    private final ApplicationEventPublisher applicationEventPublisher;
 }
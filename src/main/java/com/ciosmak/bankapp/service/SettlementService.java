@@ -0,0 +1,313 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.concurrency.AccountLockManager;
+import com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor;
+import com.ciosmak.bankapp.dashboard.UserDataChangedEvent;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.money.MinorUnits;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.settlement.AccountCredit;
+import com.ciosmak.bankapp.settlement.DueTransfer;
+import com.ciosmak.bankapp.settlement.SettlementReport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The {@code SettlementService} class is responsible for settling the pending transfers, that is for crediting the receiving bank accounts once the posting date of a transfer has passed.
+ * The due transfers are read in chunks and the transfers of every chunk whose receiving bank accounts fall on the same lock stripe are settled in their own transaction.
+ * When more than one worker is configured, the due transfers are partitioned by the receiving bank account number, so every worker owns a disjoint set of bank accounts and the workers never update the same balance.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.settlement.SettlementScheduler
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SettlementService
+{
+    /**
+     * Creates the pool of settlement workers.
+     */
+    @PostConstruct
+    public void startWorkers()
+    {
+        if (settlementWorkers > 1)
+        {
+            workers = Executors.newFixedThreadPool(settlementWorkers);
+        }
+    }
+
+    /**
+     * Stops the pool of settlement workers.
+     */
+    @PreDestroy
+    public void stopWorkers()
+    {
+        if (workers != null)
+        {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * The autoMakeTransfers method is used to automatically process all pending transfers. The method walks through the transfers which are not done yet and whose posting date has already passed, chunk by chunk in the order of the posting date and the id, instead of loading the whole transfers table.
+     * The transferred amounts are added to the balances of the receiving bank accounts, one balance update per bank account and chunk, and the transfers are set to done.
+     * With a single worker the chunks are settled one after another on the calling thread. With more workers every read chunk is partitioned by the receiving bank account number and the partitions are settled in parallel.
+     *
+     * @return the report with the number of settled transfers and the oldest settled posting date
+     */
+    public SettlementReport autoMakeTransfers()
+    {
+        LocalDateTime now = LocalDateTime.now();
+        int readChunkSize = settlementChunkSize * settlementWorkers;
+        int settledTransfers = 0;
+        LocalDateTime oldestPostingDate = null;
+        ArrayList<DueTransfer> dueTransfersList = transferRepository.findDueTransfers(now, PageRequest.of(0, readChunkSize));
+        while (!dueTransfersList.isEmpty())
+        {
+            if (oldestPostingDate == null)
+            {
+                oldestPostingDate = dueTransfersList.get(0).getPostingDate();
+            }
+            DueTransfer lastDueTransfer = dueTransfersList.get(dueTransfersList.size() - 1);
+
+            if (workers == null)
+            {
+                settledTransfers += settleChunk(dueTransfersList);
+            }
+            else
+            {
+                settledTransfers += settleInParallel(dueTransfersList);
+            }
+            if (dueTransfersList.size() < readChunkSize)
+            {
+                break;
+            }
+            dueTransfersList = transferRepository.findDueTransfersAfter(now, lastDueTransfer.getPostingDate(), lastDueTransfer.getId(), PageRequest.of(0, readChunkSize));
+        }
+        return new SettlementReport(settledTransfers, oldestPostingDate);
+    }
+
+    /**
+     * Partitions the due transfers by the receiving bank account number and settles every partition on a separate worker.
+     *
+     * @param dueTransfersList the due transfers to settle
+     * @return the number of settled transfers
+     */
+    private int settleInParallel(ArrayList<DueTransfer> dueTransfersList)
+    {
+        List<List<DueTransfer>> partitions = new ArrayList<>(settlementWorkers);
+        for (int i = 0; i < settlementWorkers; ++i)
+        {
+            partitions.add(new ArrayList<>());
+        }
+        for (var dueTransfer : dueTransfersList)
+        {
+            partitions.get(getPartition(dueTransfer.getReceivingBankAccountNumber())).add(dueTransfer);
+        }
+
+        List<Future<Integer>> results = new ArrayList<>(settlementWorkers);
+        for (var partition : partitions)
+        {
+            if (!partition.isEmpty())
+            {
+                results.add(workers.submit(() -> settleChunk(partition)));
+            }
+        }
+
+        int settledTransfers = 0;
+        try
+        {
+            for (var result : results)
+            {
+                settledTransfers += result.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Settlement was interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Settlement of a partition failed", e.getCause());
+        }
+        return settledTransfers;
+    }
+
+    /**
+     * Settles the given transfers in one transaction per lock stripe of their receiving bank accounts.
+     * During every transaction only the one stripe of its receiving bank accounts is held by the account lock manager, so transfers made from the other bank accounts are not held up for the whole chunk.
+     *
+     * @param dueTransfersList the transfers to settle
+     * @return the number of settled transfers
+     */
+    private int settleChunk(List<DueTransfer> dueTransfersList)
+    {
+        Map<Integer, List<Long>> transferIdsByStripe = new HashMap<>();
+        Map<Integer, Set<String>> receivingBankAccountNumbersByStripe = new HashMap<>();
+        for (var dueTransfer : dueTransfersList)
+        {
+            int stripe = accountLockManager.getStripe(dueTransfer.getReceivingBankAccountNumber());
+            transferIdsByStripe.computeIfAbsent(stripe, key -> new ArrayList<>()).add(dueTransfer.getId());
+            receivingBankAccountNumbersByStripe.computeIfAbsent(stripe, key -> new HashSet<>()).add(dueTransfer.getReceivingBankAccountNumber());
+        }
+
+        int settledTransfers = 0;
+        for (var entry : transferIdsByStripe.entrySet())
+        {
+            List<Long> transferIds = entry.getValue();
+            settledTransfers += accountLockManager.callWithLocks(receivingBankAccountNumbersByStripe.get(entry.getKey()), () -> settleTransfers(transferIds));
+        }
+        return settledTransfers;
+    }
+
+    /**
+     * Settles the transfers with the given ids in a single transaction.
+     * The amounts are first summed per receiving bank account in the database, so every bank account gets a single balance update, and then all the transfers are marked as done with a single statement.
+     * Transfers which have already been settled in the meantime are skipped. If another settlement marks some of the transfers as done between the two steps, or changes one of the balances, the transaction is rolled back and the transfers are settled again.
+     *
+     * @param transferIds the ids of the transfers to settle
+     * @return the number of settled transfers
+     */
+    private int settleTransfers(Collection<Long> transferIds)
+    {
+        return optimisticRetryExecutor.execute(() ->
+        {
+            ArrayList<AccountCredit> accountCreditsList = transferRepository.sumPendingCredits(transferIds);
+            long numberOfTransfers = applyCredits(accountCreditsList);
+            int markedTransfers = transferRepository.markDone(transferIds);
+            if (markedTransfers != numberOfTransfers)
+            {
+                throw new OptimisticLockingFailureException("Transfers were settled concurrently");
+            }
+            return markedTransfers;
+        });
+    }
+
+    /**
+     * Adds the credits to the balances of the local receiving bank accounts, books them in the ledger and publishes them through the outbox. Credits for bank accounts of other banks are skipped.
+     *
+     * @param accountCreditsList the credits to add
+     * @return the number of transfers making up the credits
+     */
+    private long applyCredits(ArrayList<AccountCredit> accountCreditsList)
+    {
+        Map<String, BankAccount> receivingBankAccounts = findReceivingBankAccounts(accountCreditsList);
+        long numberOfTransfers = 0L;
+        for (var accountCredit : accountCreditsList)
+        {
+            BankAccount bankAccount = receivingBankAccounts.get(accountCredit.getBankAccountNumber());
+            if (bankAccount != null)
+            {
+                bankAccount.setBalance(bankAccount.getBalance() + MinorUnits.toMinorUnits(accountCredit.getAmountOfMoney()));
+                ledgerService.credit(bankAccount, accountCredit.getAmountOfMoney());
+                outboxService.transfersSettled(bankAccount.getBankAccountNumber(), accountCredit.getAmountOfMoney(), accountCredit.getNumberOfTransfers());
+                applicationEventPublisher.publishEvent(new UserDataChangedEvent(bankAccount.getUser().getId()));
+            }
+            numberOfTransfers += accountCredit.getNumberOfTransfers();
+        }
+        return numberOfTransfers;
+    }
+
+    /**
+     * Loads the local bank accounts which receive the given credits with a single query.
+     *
+     * @param accountCreditsList the credits whose receiving bank accounts should be loaded
+     * @return the receiving bank accounts mapped by their bank account numbers
+     */
+    private Map<String, BankAccount> findReceivingBankAccounts(ArrayList<AccountCredit> accountCreditsList)
+    {
+        Set<String> receivingBankAccountNumbers = new HashSet<>();
+        for (var accountCredit : accountCreditsList)
+        {
+            receivingBankAccountNumbers.add(accountCredit.getBankAccountNumber());
+        }
+        Map<String, BankAccount> receivingBankAccounts = new HashMap<>();
+        for (var bankAccount : bankAccountRepository.findByBankAccountNumberIn(receivingBankAccountNumbers))
+        {
+            receivingBankAccounts.put(bankAccount.getBankAccountNumber(), bankAccount);
+        }
+        return receivingBankAccounts;
+    }
+
+    /**
+     * Returns the number of the worker which owns the given receiving bank account.
+     * The partitions are made of whole lock stripes, so two workers never wait for the same stripe.
+     *
+     * @param receivingBankAccountNumber the receiving bank account number
+     * @return the number of the worker
+     */
+    private int getPartition(String receivingBankAccountNumber)
+    {
+        return accountLockManager.getStripe(receivingBankAccountNumber) % settlementWorkers;
+    }
+
+    /**
+     * bankAccountRepository is an instance variable of type BankAccountRepository, used to access and manipulate bank account data in the database.
+     */
+    private final BankAccountRepository bankAccountRepository;
+
+    /**
+     * transferRepository is an instance variable of type TransferRepository, used to access and manipulate transfer data in the database.
+     */
+    private final TransferRepository transferRepository;
+
+    /**
+     * optimisticRetryExecutor is used to settle every group of transfers in its own transaction, retried on optimistic locking conflicts.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * accountLockManager is used to group the transfers by the lock stripes of their receiving bank accounts and to lock the stripe while the balances are updated.
+     */
+    private final AccountLockManager accountLockManager;
+
+    /**
+     * ledgerService is used to book the credits of the receiving bank accounts in the ledger.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * outboxService is used to publish the credits of the receiving bank accounts.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * applicationEventPublisher is used to publish the changes of the balances of the users receiving the settled transfers, so their desktop summaries are invalidated.
+     */
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    /**
+     * settlementChunkSize is the number of transfers read for every worker at once, they are settled in one transaction per lock stripe.
+     */
+    @Value("${bank.settlement.chunk-size}")
+    private int settlementChunkSize;
+
+    /**
+     * settlementWorkers is the number of workers settling the transfers in parallel. A single worker settles the transfers on the calling thread.
+     */
+    @Value("${bank.settlement.workers}")
+    private int settlementWorkers;
+
+    /**
+     * workers is the pool of settlement workers or null if the transfers are settled on the calling thread.
+     */
+    private ExecutorService workers;
+}
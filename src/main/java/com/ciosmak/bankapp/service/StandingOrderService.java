@@ -0,0 +1,349 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor;
+import com.ciosmak.bankapp.entity.StandingOrder;
+import com.ciosmak.bankapp.exception.FatalError;
+import com.ciosmak.bankapp.exception.IllegalOptionSelectedException;
+import com.ciosmak.bankapp.exception.InvalidDateException;
+import com.ciosmak.bankapp.repository.StandingOrderRepository;
+import com.ciosmak.bankapp.repository.UserRepository;
+import com.ciosmak.bankapp.standing.order.DueStandingOrder;
+import com.ciosmak.bankapp.standing.order.StandingOrderFrequency;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import com.ciosmak.bankapp.transfer.result.TransferResult;
+import com.ciosmak.bankapp.transfer.result.TransferStatus;
+import com.ciosmak.bankapp.user.id.UserId;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The {@code StandingOrderService} class is responsible for the standing orders, that is for the transfers made regularly from the user's bank account.
+ * The user creates and cancels the standing orders, and the due standing orders are turned into transfers in batches by the {@link com.ciosmak.bankapp.standing.order.StandingOrderScheduler}.
+ * The due standing orders are found through the index on the active and next execution date columns, so checking what is due costs as much as the number of due standing orders, not the number of all of them.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see AbstractService
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Transactional
+@Service
+public class StandingOrderService extends AbstractService
+{
+    /**
+     * The create method is used to create a new standing order. The method prompts the user for the data of the transfer, the frequency of the standing order and the date of the first transfer.
+     *
+     * @param userId - the userId of the user creating the standing order.
+     */
+    public void create(UserId userId)
+    {
+        System.out.println("\n---NOWE ZLECENIE STAŁE---");
+        TransferCommand transferCommand = transferService.readTransferCommand(userId);
+        StandingOrderFrequency frequency = chooseFrequency();
+        LocalDate firstExecutionDate = createFirstExecutionDate();
+
+        StandingOrder standingOrder = StandingOrder.builder().
+                title(transferCommand.getTitle()).
+                amountOfMoney(transferCommand.getAmountOfMoney()).
+                senderBankAccountNumber(transferCommand.getSenderBankAccountNumber()).
+                receivingBankAccountNumber(transferCommand.getReceivingBankAccountNumber()).
+                frequency(frequency).
+                firstExecutionDate(firstExecutionDate).
+                numberOfExecutions(0).
+                nextExecutionDate(firstExecutionDate).
+                active(true).
+                user(getUserById(userId, userRepository)).
+                build();
+        standingOrderRepository.save(standingOrder);
+        System.out.println("\n---ZLECENIE STAŁE ZOSTAŁO UTWORZONE---");
+    }
+
+    /**
+     * The cancel method shows the active standing orders of the user and cancels the one selected by the user.
+     * The method runs without a transaction while the user chooses, and the selected standing order is cancelled in its own short transaction with the {@link #cancelStandingOrder(Long)} method.
+     *
+     * @param userId - the userId of the user cancelling the standing order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cancel(UserId userId)
+    {
+        System.out.println("\n---ANULUJ ZLECENIE STAŁE---");
+        ArrayList<StandingOrder> standingOrdersList = standingOrderRepository.findByUserIdAndActiveTrueOrderById(userId.getId());
+        if (standingOrdersList.isEmpty())
+        {
+            System.out.println("Brak zleceń stałych");
+            return;
+        }
+
+        int amountOfStandingOrders = standingOrdersList.size();
+        int selectedStandingOrder;
+        while (true)
+        {
+            try
+            {
+                for (int i = 0; i < amountOfStandingOrders; ++i)
+                {
+                    StandingOrder standingOrder = standingOrdersList.get(i);
+                    System.out.println(i + 1 + ". " + String.format("%1$-" + 30 + "s", standingOrder.getTitle()) + "\t" + String.format("%1$-" + 15 + "s", standingOrder.getAmountOfMoney()) + "\t" + standingOrder.getFrequency().getName() + ", następny przelew: " + standingOrder.getNextExecutionDate());
+                }
+                System.out.println(amountOfStandingOrders + 1 + ". Wstecz");
+                System.out.print("Wybieram: ");
+                selectedStandingOrder = scanner.nextInt();
+                selectedStandingOrder--;
+                scanner = new Scanner(System.in);
+                if (selectedStandingOrder == amountOfStandingOrders)
+                {
+                    return;
+                }
+                if (checkIfCorrectProductIsSelected(selectedStandingOrder, amountOfStandingOrders))
+                {
+                    Long standingOrderId = standingOrdersList.get(selectedStandingOrder).getId();
+                    optimisticRetryExecutor.execute(() -> cancelStandingOrder(standingOrderId));
+                    System.out.println("\n---ZLECENIE STAŁE ZOSTAŁO ANULOWANE---");
+                    return;
+                }
+                throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do " + (amountOfStandingOrders + 1) + ".\nSpróbuj ponownie.\n", "");
+            }
+            catch (IllegalOptionSelectedException e)
+            {
+                e.show();
+            }
+            catch (InputMismatchException e)
+            {
+                scanner = new Scanner(System.in);
+                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do " + (amountOfStandingOrders + 1) + ".\nSpróbuj ponownie.");
+                System.err.flush();
+            }
+        }
+    }
+
+    /**
+     * Cancels the standing order with the given id.
+     * The standing order is versioned, so if the scheduler moves it to its next execution date at the same time, one of the transactions fails with an optimistic locking conflict and is repeated on the current state, and the cancellation is never overwritten.
+     *
+     * @param standingOrderId the id of the standing order
+     * @return true if the standing order was cancelled, false if it does not exist anymore
+     */
+    private boolean cancelStandingOrder(Long standingOrderId)
+    {
+        Optional<StandingOrder> standingOrder = standingOrderRepository.findById(standingOrderId);
+        standingOrder.ifPresent(presentStandingOrder -> presentStandingOrder.setActive(false));
+        return standingOrder.isPresent();
+    }
+
+    /**
+     * Makes the transfers of all standing orders due on the given date. The due standing orders are read in batches, every batch is submitted with a single {@link TransferService#submitStandingOrders(List)} call and then the standing orders are moved to their next execution dates.
+     * A standing order which missed some execution dates, for example while the application was not running, makes one transfer for every missed date.
+     * Every transfer is submitted with an idempotency key made of the id of the standing order and the execution date, so if the application stops between making the transfers and moving the standing orders, the transfers are not made twice.
+     * A standing order whose sender bank account does not exist anymore is cancelled, a transfer rejected for the lack of money is skipped.
+     *
+     * @param date the date up to which the standing orders are due
+     * @return the number of made transfers
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int executeDueStandingOrders(LocalDate date)
+    {
+        int madeTransfers = 0;
+        ArrayList<DueStandingOrder> dueStandingOrdersList;
+        while (!(dueStandingOrdersList = standingOrderRepository.findDueStandingOrders(date, PageRequest.of(0, batchSize))).isEmpty())
+        {
+            List<TransferCommand> transferCommands = new ArrayList<>(dueStandingOrdersList.size());
+            for (var standingOrder : dueStandingOrdersList)
+            {
+                transferCommands.add(TransferCommand.builder().
+                        userId(standingOrder.getUserId()).
+                        senderBankAccountNumber(standingOrder.getSenderBankAccountNumber()).
+                        receivingBankAccountNumber(standingOrder.getReceivingBankAccountNumber()).
+                        amountOfMoney(standingOrder.getAmountOfMoney()).
+                        title(standingOrder.getTitle()).
+                        idempotencyKey("standing-order:" + standingOrder.getId() + ":" + standingOrder.getNextExecutionDate()).
+                        build());
+            }
+            List<TransferResult> transferResults = transferService.submitStandingOrders(transferCommands);
+            ArrayList<DueStandingOrder> executedStandingOrders = dueStandingOrdersList;
+            optimisticRetryExecutor.execute(() -> moveToNextExecutionDates(executedStandingOrders, transferResults));
+            for (var transferResult : transferResults)
+            {
+                if (transferResult.getStatus() == TransferStatus.MADE)
+                {
+                    ++madeTransfers;
+                }
+            }
+        }
+        return madeTransfers;
+    }
+
+    /**
+     * Moves the executed standing orders to their next execution dates and cancels the standing orders whose sender bank accounts do not exist anymore.
+     * A standing order which was already moved or changed in the meantime is left as it is. If a standing order is cancelled while it is moved, the transaction fails with an optimistic locking conflict and is repeated, so the cancellation is kept.
+     *
+     * @param dueStandingOrdersList the executed standing orders
+     * @param transferResults       the outcomes of their transfers, in the same order
+     * @return the number of moved standing orders
+     */
+    private int moveToNextExecutionDates(List<DueStandingOrder> dueStandingOrdersList, List<TransferResult> transferResults)
+    {
+        List<Long> ids = new ArrayList<>(dueStandingOrdersList.size());
+        for (var dueStandingOrder : dueStandingOrdersList)
+        {
+            ids.add(dueStandingOrder.getId());
+        }
+        Map<Long, StandingOrder> standingOrders = new HashMap<>();
+        for (var standingOrder : standingOrderRepository.findAllById(ids))
+        {
+            standingOrders.put(standingOrder.getId(), standingOrder);
+        }
+
+        for (int i = 0; i < dueStandingOrdersList.size(); ++i)
+        {
+            StandingOrder standingOrder = standingOrders.get(dueStandingOrdersList.get(i).getId());
+            if (standingOrder == null || !standingOrder.getNextExecutionDate().equals(dueStandingOrdersList.get(i).getNextExecutionDate()))
+            {
+                continue;
+            }
+            TransferStatus transferStatus = transferResults.get(i).getStatus();
+            if (transferStatus == TransferStatus.UNKNOWN_SENDER_ACCOUNT)
+            {
+                log.warn("Standing order {} cancelled, its sender bank account does not exist", standingOrder.getId());
+                standingOrder.setActive(false);
+            }
+            else if (!transferResults.get(i).isAccepted())
+            {
+                log.info("Transfer of standing order {} due on {} was not made: {}", standingOrder.getId(), standingOrder.getNextExecutionDate(), transferStatus);
+            }
+            standingOrder.setNumberOfExecutions(standingOrder.getNumberOfExecutions() + 1);
+            standingOrder.setNextExecutionDate(standingOrder.getFrequency().getExecutionDate(standingOrder.getFirstExecutionDate(), standingOrder.getNumberOfExecutions()));
+        }
+        return standingOrders.size();
+    }
+
+    /**
+     * Allows the user to choose the frequency of a standing order.
+     *
+     * @return the chosen frequency
+     */
+    private StandingOrderFrequency chooseFrequency()
+    {
+        StandingOrderFrequency[] frequencies = StandingOrderFrequency.values();
+        int selectedFrequency;
+        while (true)
+        {
+            try
+            {
+                System.out.println("\n---WYBIERZ CZĘSTOTLIWOŚĆ---");
+                for (int i = 0; i < frequencies.length; ++i)
+                {
+                    System.out.println(i + 1 + ". " + frequencies[i].getName());
+                }
+                System.out.print("Wybieram: ");
+                selectedFrequency = scanner.nextInt();
+                selectedFrequency--;
+                scanner = new Scanner(System.in);
+                if (checkIfCorrectProductIsSelected(selectedFrequency, frequencies.length))
+                {
+                    return frequencies[selectedFrequency];
+                }
+                throw new IllegalOptionSelectedException("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do " + frequencies.length + ".\nSpróbuj ponownie.\n", "");
+            }
+            catch (IllegalOptionSelectedException e)
+            {
+                e.show();
+            }
+            catch (InputMismatchException e)
+            {
+                scanner = new Scanner(System.in);
+                System.err.println("Nie ma takiej opcji.\nNależy wprowadzić liczbę od 1 do " + frequencies.length + ".\nSpróbuj ponownie.");
+                System.err.flush();
+            }
+        }
+    }
+
+    /**
+     * This method creates the date of the first transfer of a standing order input by the user. The date cannot be in the past.
+     *
+     * @return LocalDate - the date of the first transfer.
+     */
+    private LocalDate createFirstExecutionDate()
+    {
+        while (true)
+        {
+            try
+            {
+                System.out.println("---WPROWADŹ DATĘ PIERWSZEGO PRZELEWU---");
+                int day;
+                System.out.print("Podaj dzień: ");
+                day = scanner.nextInt();
+
+                int month;
+                System.out.print("Podaj miesiąc: ");
+                month = scanner.nextInt();
+
+                int year;
+                System.out.print("Podaj rok: ");
+                year = scanner.nextInt();
+
+                LocalDate firstExecutionDate = LocalDate.of(year, month, day);
+                if (firstExecutionDate.isBefore(LocalDate.now()))
+                {
+                    throw new InvalidDateException("Data pierwszego przelewu nie może być datą przeszłą.\nSpróbuj ponownie.\n", "");
+                }
+                return firstExecutionDate;
+            }
+            catch (DateTimeException e)
+            {
+                System.err.println("Podana data nie istnieje.\nSpróbuj ponownie.");
+                System.err.flush();
+            }
+            catch (InvalidDateException e)
+            {
+                e.show();
+            }
+            catch (InputMismatchException e)
+            {
+                scanner = new Scanner(System.in);
+                System.err.println("Wystąpił błąd.\nNależy wprowadzać tylko cyfry.\nSpróbuj ponownie.");
+                System.err.flush();
+            }
+            catch (Exception e)
+            {
+                FatalError.exit();
+            }
+        }
+    }
+
+    /**
+     * standingOrderRepository is an instance variable of type StandingOrderRepository, used to access and manipulate standing order data in the database.
+     */
+    private final StandingOrderRepository standingOrderRepository;
+
+    /**
+     * userRepository is an instance variable of type UserRepository, used to access user data in the database.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * transferService is used to read the data of the transfer of a new standing order and to make the transfers of the due standing orders.
+     */
+    private final TransferService transferService;
+
+    /**
+     * optimisticRetryExecutor is used to move the executed standing orders to their next execution dates and to cancel standing orders, in new transactions repeated on optimistic locking conflicts.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * batchSize is the number of due standing orders executed together.
+     */
+    @Value("${bank.standing-orders.batch-size}")
+    private int batchSize;
+}
@@ -1,26 +1,45 @@
 package com.ciosmak.bankapp.service;
 
+import com.ciosmak.bankapp.cache.IdempotencyCache;
+import com.ciosmak.bankapp.calendar.PostingCalendar;
+import com.ciosmak.bankapp.concurrency.AccountLockManager;
+import com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor;
+import com.ciosmak.bankapp.dashboard.UserDataChangedEvent;
 import com.ciosmak.bankapp.entity.BankAccount;
 import com.ciosmak.bankapp.entity.Transfer;
 import com.ciosmak.bankapp.exception.*;
+import com.ciosmak.bankapp.money.MinorUnits;
 import com.ciosmak.bankapp.repository.BankAccountRepository;
 import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import com.ciosmak.bankapp.transfer.idempotency.OriginalTransfer;
+import com.ciosmak.bankapp.transfer.importer.ImportReport;
+import com.ciosmak.bankapp.transfer.importer.ImportedLine;
+import com.ciosmak.bankapp.transfer.importer.TransferFileReader;
+import com.ciosmak.bankapp.transfer.result.TransferResult;
+import com.ciosmak.bankapp.transfer.result.TransferStatus;
 import com.ciosmak.bankapp.user.id.UserId;
+import com.ciosmak.bankapp.velocity.VelocityGuard;
+import com.ciosmak.bankapp.velocity.VelocityVerdict;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
-import java.util.ArrayList;
-import java.util.InputMismatchException;
-import java.util.Optional;
-import java.util.Scanner;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * The {@code TransferService} class is responsible for handling all transfers related operations.
@@ -37,14 +56,35 @@ import java.util.regex.Pattern;
 public class TransferService extends AbstractService
 {
     /**
-     * The create method is used to create a new transfer. The method prompts the user for the title of the transfer, the amount of money to be transferred, and the account number of the recipient. The method checks if the amount of money is a valid number and if the account number is correct. The method also sets the execution date and posting date of the transfer. The method also checks if there is enough money in the account to complete the transfer.
+     * The create method is used to create a new transfer. The method prompts the user for the data of the transfer with the {@link #readTransferCommand(UserId)} method.
+     * The collected data is then submitted as a transfer command, the same way as by any other client of the {@link #submit(TransferCommand)} method, and the outcome is displayed.
+     * The method runs without a transaction, so the submission is made in its own transactions as for every other client.
      *
      * @param userId - the userId of the user making the transfer.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void create(UserId userId)
     {
         System.out.println("\n---WYKONAJ PRZELEW---");
+        TransferResult transferResult = submit(readTransferCommand(userId));
+        switch (transferResult.getStatus())
+        {
+            case MADE -> System.out.println("\n---PRZELEW ZOSTAŁ WYKONANY---");
+            case DUPLICATE -> System.out.println("\n---PRZELEW ZOSTAŁ JUŻ WYKONANY---");
+            case NOT_ENOUGH_MONEY -> System.err.println("\n---PRZELEW NIE ZOSTAŁ WYKONANY PRZEZ BRAK TAKIEJ KWOTY NA KONCIE---");
+            case VELOCITY_LIMIT_EXCEEDED -> System.err.println("\n---PRZELEW NIE ZOSTAŁ WYKONANY PRZEZ PRZEKROCZENIE LIMITU PRZELEWÓW Z TEGO KONTA---");
+            default -> FatalError.exit();
+        }
+    }
 
+    /**
+     * The readTransferCommand method prompts the user for the title of the transfer, the amount of money to be transferred, the account number of the recipient and the sender bank account. The method checks if the amount of money is a valid number and if the account number is correct.
+     *
+     * @param userId - the userId of the user making the transfer.
+     * @return the transfer command with the collected data
+     */
+    public TransferCommand readTransferCommand(UserId userId)
+    {
         String title;
         System.out.print("Podaj tytuł przelewu: ");
         title = scanner.nextLine();
@@ -57,21 +97,12 @@ public class TransferService extends AbstractService
             {
                 System.out.print("Podaj kwotę: ");
                 amountOfMoneyToTransfer = scanner.nextBigDecimal();
-                Pattern pattern = Pattern.compile("\\d+\\.(\\d{3,})");
-                Matcher matcher = pattern.matcher(amountOfMoneyToTransfer.toString());
-                if (isNumberNegative(amountOfMoneyToTransfer))
-                {
-                    throw new IllegalAmountException("Podana kwota jest błędna.\nKwota nie może być liczbą ujemną.\nSpróbuj ponownie.\n", "");
-                }
-                if (numberIsTooLong(amountOfMoneyToTransfer))
-                {
-                    throw new IllegalAmountException("Podana kwota jest błędna.\nKwota nie może być aż tak duża.\nSpróbuj ponownie.\n", "");
-                }
-                if (!matcher.find())
+                String amountError = checkAmount(amountOfMoneyToTransfer);
+                if (amountError == null)
                 {
                     break;
                 }
-                throw new IllegalAmountException("Podana kwota jest błędna.\nKwota powinna się być liczbą z maksymalnie dwiema cyframi po przecinku.\nSpróbuj ponownie.\n", "");
+                throw new IllegalAmountException(amountError, "");
             }
             catch (IllegalAmountException e)
             {
@@ -102,62 +133,599 @@ public class TransferService extends AbstractService
             System.out.print("Ponownie podaj numer konta odbiorcy: ");
         }
 
-        LocalDateTime executionDate = LocalDateTime.now();
+        BankAccount senderBankAccount = chooseOneBankAccount(userId);
+        return TransferCommand.builder().
+                userId(userId.getId()).
+                senderBankAccountNumber(senderBankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(accountNumber).
+                amountOfMoney(amountOfMoneyToTransfer).
+                title(title).
+                build();
+    }
 
-        LocalDateTime postingDate = setPostingDate(executionDate);
+    /**
+     * Submits a transfer without any interaction with the user. The method validates the command, debits the sender bank account and creates the transfer, which is then settled by the settlement.
+     * A command submitted again with the same idempotency key returns the original transfer and changes no balance.
+     * A key already used by a transfer from another sender bank account or of another user is rejected as a conflict, so the key cannot be used to find out about transfers of other users.
+     * Before a new transfer is made it is checked by the {@link VelocityGuard}, which rejects or flags a sender bank account making too many transfers or sending too much money in a short time.
+     * The idempotency key is looked up before the check, so a repeated submission is reported as a duplicate even when the sender bank account has reached its limits.
+     *
+     * @param transferCommand the transfer to make
+     * @return the outcome of the submission
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransferResult submit(TransferCommand transferCommand)
+    {
+        TransferStatus validationStatus = validate(transferCommand);
+        if (validationStatus != null)
+        {
+            return TransferResult.rejected(validationStatus);
+        }
 
-        Optional<BankAccount> bankAccount = bankAccountRepository.findById(chooseOneBankAccount(userId));
-        if (bankAccount.isPresent())
+        String idempotencyKey = getIdempotencyKey(transferCommand);
+        TransferResult repeatedSubmissionResult = findRepeatedSubmission(transferCommand, idempotencyKey);
+        if (repeatedSubmissionResult != null)
+        {
+            return repeatedSubmissionResult;
+        }
+        long amountOfMoney = MinorUnits.toMinorUnits(transferCommand.getAmountOfMoney());
+        long now = System.currentTimeMillis();
+        if (velocityGuard.reserve(transferCommand.getSenderBankAccountNumber(), amountOfMoney, now) == VelocityVerdict.REJECTED)
+        {
+            return TransferResult.rejected(TransferStatus.VELOCITY_LIMIT_EXCEEDED);
+        }
+        TransferResult transferResult = null;
+        try
         {
-            if (isEnoughMoneyInAccount(bankAccount.get().getBalance(), amountOfMoneyToTransfer))
+            transferResult = makeTransfer(transferCommand, idempotencyKey);
+            return transferResult;
+        }
+        finally
+        {
+            if (transferResult == null || transferResult.getStatus() != TransferStatus.MADE)
             {
-                bankAccount.get().setBalance(bankAccount.get().getBalance().subtract(amountOfMoneyToTransfer));
-                Transfer transfer = Transfer.builder().
-                        title(title).
-                        amountOfMoney(amountOfMoneyToTransfer).
-                        senderBankAccountNumber(bankAccount.get().getBankAccountNumber()).
-                        receivingBankAccountNumber(accountNumber).
-                        executionDate(executionDate).
-                        postingDate(postingDate).
-                        build();
-                transferRepository.save(transfer);
-                bankAccount.get().getTransfers().add(transfer);
-
-                System.out.println("\n---PRZELEW ZOSTAŁ WYKONANY---");
+                velocityGuard.release(transferCommand.getSenderBankAccountNumber(), amountOfMoney, now);
             }
-            else
+        }
+    }
+
+    /**
+     * Submits many transfers at once, without any interaction with the user. Every command is handled like by the {@link #submit(TransferCommand)} method, but the valid commands are made in a single transaction,
+     * with all their bank accounts locked together and the sender bank accounts loaded with one query, so a batch costs a few statements instead of a few statements per transfer.
+     * The idempotency keys of the batch are looked up in the database with one query before the transfers are checked by the {@link VelocityGuard}, which applies only its maximum amounts to a batch. A key used by a transfer of someone else is rejected as a conflict, as by the {@link #submit(TransferCommand)} method.
+     * If any command of the batch uses an idempotency key which reached the database concurrently, the batch is rolled back and its commands are submitted one by one, which returns the original transfers for the repeated keys.
+     *
+     * @param transferCommands the transfers to make
+     * @return the outcomes of the submissions, in the order of the commands
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TransferResult> submitBatch(List<TransferCommand> transferCommands)
+    {
+        return submitBatch(transferCommands, true);
+    }
+
+    /**
+     * Submits the transfers of standing orders. The transfers are made like by the {@link #submitBatch(List)} method, but they are neither checked nor counted by the {@link VelocityGuard}.
+     * A standing order was set up by its owner in advance and makes the same transfer on a schedule, so it is not the kind of sudden burst the velocity limits are meant to stop, and a standing order larger than a limit would otherwise be rejected on every execution date.
+     *
+     * @param transferCommands the transfers to make
+     * @return the outcomes of the submissions, in the order of the commands
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TransferResult> submitStandingOrders(List<TransferCommand> transferCommands)
+    {
+        return submitBatch(transferCommands, false);
+    }
+
+    /**
+     * Submits many transfers at once, as described for the {@link #submitBatch(List)} method.
+     * The reservations made in the {@link VelocityGuard} for the transfers which are not made are released in a finally block, so they are released also when the batch fails with an exception.
+     *
+     * @param transferCommands the transfers to make
+     * @param checkVelocity    whether the transfers are checked and counted by the velocity guard
+     * @return the outcomes of the submissions, in the order of the commands
+     */
+    private List<TransferResult> submitBatch(List<TransferCommand> transferCommands, boolean checkVelocity)
+    {
+        TransferResult[] transferResults = new TransferResult[transferCommands.size()];
+        String[] idempotencyKeys = new String[transferCommands.size()];
+        ArrayList<Integer> newCommands = new ArrayList<>();
+        HashSet<String> submittedIdempotencyKeys = new HashSet<>();
+        for (int i = 0; i < transferCommands.size(); ++i)
+        {
+            TransferCommand transferCommand = transferCommands.get(i);
+            TransferStatus validationStatus = validate(transferCommand);
+            if (validationStatus != null)
+            {
+                transferResults[i] = TransferResult.rejected(validationStatus);
+                continue;
+            }
+            idempotencyKeys[i] = getIdempotencyKey(transferCommand);
+            Long originalTransferId = idempotencyCache.get(getCacheKey(transferCommand, idempotencyKeys[i]));
+            if (originalTransferId != null)
             {
-                System.err.println("\n---PRZELEW NIE ZOSTAŁ WYKONANY PRZEZ BRAK TAKIEJ KWOTY NA KONCIE---");
+                transferResults[i] = new TransferResult(TransferStatus.DUPLICATE, originalTransferId);
+                continue;
+            }
+            newCommands.add(i);
+            if (transferCommand.getIdempotencyKey() != null)
+            {
+                submittedIdempotencyKeys.add(idempotencyKeys[i]);
             }
         }
-        else
+        HashMap<String, OriginalTransfer> originalTransfers = new HashMap<>();
+        if (!submittedIdempotencyKeys.isEmpty())
         {
-            FatalError.exit();
+            for (var originalTransfer : transferRepository.findOriginalTransfers(submittedIdempotencyKeys))
+            {
+                originalTransfers.put(originalTransfer.getIdempotencyKey(), originalTransfer);
+            }
         }
 
+        long now = System.currentTimeMillis();
+        long[] amountsOfMoney = new long[transferCommands.size()];
+        ArrayList<Integer> validCommands = new ArrayList<>();
+        HashSet<String> bankAccountNumbers = new HashSet<>();
+        for (int i : newCommands)
+        {
+            TransferCommand transferCommand = transferCommands.get(i);
+            OriginalTransfer originalTransfer = originalTransfers.get(idempotencyKeys[i]);
+            if (originalTransfer != null)
+            {
+                transferResults[i] = getRepeatedSubmissionResult(transferCommand, idempotencyKeys[i], originalTransfer);
+                continue;
+            }
+            amountsOfMoney[i] = MinorUnits.toMinorUnits(transferCommand.getAmountOfMoney());
+            if (checkVelocity && velocityGuard.reserveAmount(transferCommand.getSenderBankAccountNumber(), amountsOfMoney[i], now) == VelocityVerdict.REJECTED)
+            {
+                transferResults[i] = TransferResult.rejected(TransferStatus.VELOCITY_LIMIT_EXCEEDED);
+                continue;
+            }
+            validCommands.add(i);
+            bankAccountNumbers.add(transferCommand.getSenderBankAccountNumber());
+            bankAccountNumbers.add(transferCommand.getReceivingBankAccountNumber());
+        }
+        if (validCommands.isEmpty())
+        {
+            return Arrays.asList(transferResults);
+        }
 
+        LocalDateTime executionDate = LocalDateTime.now();
+        LocalDateTime postingDate = setPostingDate(executionDate);
+        try
+        {
+            TransferResult[] madeTransfers = accountLockManager.callWithLocks(bankAccountNumbers, () -> optimisticRetryExecutor.execute(() -> debitAndCreateTransfers(transferCommands, idempotencyKeys, validCommands, executionDate, postingDate)));
+            for (int i : validCommands)
+            {
+                transferResults[i] = madeTransfers[i];
+                if (madeTransfers[i].getStatus() == TransferStatus.MADE)
+                {
+                    idempotencyCache.put(getCacheKey(transferCommands.get(i), idempotencyKeys[i]), madeTransfers[i].getTransferId());
+                }
+            }
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            for (int i : validCommands)
+            {
+                transferResults[i] = makeTransfer(transferCommands.get(i), idempotencyKeys[i]);
+            }
+        }
+        finally
+        {
+            if (checkVelocity)
+            {
+                for (int i : validCommands)
+                {
+                    if (transferResults[i] == null || transferResults[i].getStatus() != TransferStatus.MADE)
+                    {
+                        velocityGuard.release(transferCommands.get(i).getSenderBankAccountNumber(), amountsOfMoney[i], now);
+                    }
+                }
+            }
+        }
+        return Arrays.asList(transferResults);
+    }
+
+    /**
+     * The importTransfers method is used to import transfers from a file. The method prompts the user for the path to the file, imports the transfers from the user's bank accounts and displays the summary of the import.
+     * The method runs without a transaction, so every batch of the import is made in its own transaction instead of all of them being held in one.
+     *
+     * @param userId - the userId of the user making the transfers.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void importTransfers(UserId userId)
+    {
+        System.out.println("\n---IMPORT PRZELEWÓW---");
+        System.out.println("Każda linia pliku powinna mieć postać: rachunek nadawcy;rachunek odbiorcy;kwota;tytuł");
+        System.out.print("Podaj ścieżkę do pliku: ");
+        scanner = new Scanner(System.in);
+        String fileName = scanner.nextLine();
+        try
+        {
+            ImportReport importReport = importTransfers(Path.of(fileName.trim()), userId.getId());
+            System.out.println("Wczytane linie: " + importReport.getLines());
+            System.out.println("Wykonane przelewy: " + importReport.getMadeTransfers());
+            System.out.println("Przelewy wykonane już wcześniej: " + importReport.getDuplicates());
+            System.out.println("Odrzucone linie: " + importReport.getRejects());
+            if (importReport.getRejects() > 0)
+            {
+                System.out.println("Odrzucone linie zapisano w pliku: " + importReport.getRejectsFile());
+            }
+        }
+        catch (IOException | InvalidPathException e)
+        {
+            System.err.println("Nie udało się odczytać pliku.\nSprawdź ścieżkę do pliku i spróbuj ponownie.");
+            System.err.flush();
+        }
     }
 
     /**
-     * The autoMakeTransfers method is used to automatically process all pending transfers. The method retrieves all transfers from the transfer repository and iterates through them. For each transfer that has not yet been completed and has a posting date before its execution date, the method sets the transfer to done, finds the bank account associated with the receiving account number, and adds the transferred amount of money to the balance of that account.
+     * Imports transfers from a file. The file is read line by line and the transfers are submitted in batches by the {@link #submitBatch(List)} method, so the import uses constant memory regardless of the size of the file.
+     * The rejected lines are written, together with their line numbers and the reasons of the rejection, to a file with the .rejects extension next to the imported file.
+     * Every line is identified by an idempotency key derived from the file name, the line number and the line, so an interrupted import can be repeated without making the transfers twice.
+     *
+     * @param file   the file with the transfers
+     * @param userId id of the user making the transfers, the sender bank accounts have to belong to this user
+     * @return the summary of the import
+     * @throws IOException if the file cannot be read or the rejected lines cannot be written
      */
-    public void autoMakeTransfers()
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ImportReport importTransfers(Path file, Long userId) throws IOException
     {
-        ArrayList<Transfer> transfersList = transferRepository.findAll();
-        for (var transfer : transfersList)
+        Path rejectsFile = file.resolveSibling(file.getFileName() + ".rejects");
+        long lines = 0;
+        long madeTransfers = 0;
+        long duplicates = 0;
+        long rejects = 0;
+        try (TransferFileReader transferFileReader = new TransferFileReader(file, userId); BufferedWriter rejectsWriter = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8))
         {
-            if (!transfer.isDone())
+            ArrayList<ImportedLine> batch = new ArrayList<>(importBatchSize);
+            ImportedLine importedLine;
+            do
             {
-                if (transfer.getPostingDate().isBefore(transfer.getExecutionDate()))
+                importedLine = transferFileReader.next();
+                if (importedLine != null)
                 {
-                    transfer.setDone(true);
-                    Optional<BankAccount> bankAccount = bankAccountRepository.findByBankAccountNumber(transfer.getReceivingBankAccountNumber());
-                    bankAccount.ifPresent(account -> account.setBalance(account.getBalance().add(transfer.getAmountOfMoney())));
+                    ++lines;
+                    if (importedLine.getTransferCommand() == null)
+                    {
+                        writeReject(rejectsWriter, importedLine, "INVALID_FORMAT");
+                        ++rejects;
+                    }
+                    else
+                    {
+                        batch.add(importedLine);
+                    }
                 }
+                if (batch.size() == importBatchSize || (importedLine == null && !batch.isEmpty()))
+                {
+                    List<TransferResult> transferResults = submitBatch(batch.stream().map(ImportedLine::getTransferCommand).toList());
+                    for (int i = 0; i < batch.size(); ++i)
+                    {
+                        switch (transferResults.get(i).getStatus())
+                        {
+                            case MADE -> ++madeTransfers;
+                            case DUPLICATE -> ++duplicates;
+                            default ->
+                            {
+                                writeReject(rejectsWriter, batch.get(i), transferResults.get(i).getStatus().name());
+                                ++rejects;
+                            }
+                        }
+                    }
+                    batch.clear();
+                }
+            }
+            while (importedLine != null);
+        }
+        log.info("Imported {} lines from {}: {} transfers made, {} duplicates, {} rejects", lines, file, madeTransfers, duplicates, rejects);
+        return new ImportReport(lines, madeTransfers, duplicates, rejects, rejectsFile);
+    }
+
+    /**
+     * Finds the transfer made before with the idempotency key of a command, first in the idempotency cache and then in the database. A key generated for a command without its own key is new and is not looked up.
+     *
+     * @param transferCommand the submitted transfer
+     * @param idempotencyKey  the key identifying the submission
+     * @return the outcome of the repeated submission or null if the submission is new
+     */
+    private TransferResult findRepeatedSubmission(TransferCommand transferCommand, String idempotencyKey)
+    {
+        Long originalTransferId = idempotencyCache.get(getCacheKey(transferCommand, idempotencyKey));
+        if (originalTransferId != null)
+        {
+            return new TransferResult(TransferStatus.DUPLICATE, originalTransferId);
+        }
+        if (transferCommand.getIdempotencyKey() == null)
+        {
+            return null;
+        }
+        return transferRepository.findOriginalTransfer(idempotencyKey).map(originalTransfer -> getRepeatedSubmissionResult(transferCommand, idempotencyKey, originalTransfer)).orElse(null);
+    }
+
+    /**
+     * Answers a submission whose idempotency key was already used by the given transfer. The original transfer is returned only if it was made by the same sender bank account of the same user, otherwise the submission is rejected as a conflict.
+     *
+     * @param transferCommand  the submitted transfer
+     * @param idempotencyKey   the key identifying the submission
+     * @param originalTransfer the transfer made before with the same key
+     * @return the outcome of the repeated submission
+     */
+    private TransferResult getRepeatedSubmissionResult(TransferCommand transferCommand, String idempotencyKey, OriginalTransfer originalTransfer)
+    {
+        if (!originalTransfer.isSubmittedBy(transferCommand))
+        {
+            return TransferResult.rejected(TransferStatus.IDEMPOTENCY_KEY_CONFLICT);
+        }
+        idempotencyCache.put(getCacheKey(transferCommand, idempotencyKey), originalTransfer.getId());
+        return new TransferResult(TransferStatus.DUPLICATE, originalTransfer.getId());
+    }
+
+    /**
+     * Makes a validated transfer. Known idempotency keys are answered from the idempotency cache, the unique idempotency key column protects against the keys which are not in the cache anymore.
+     * The sender and receiver bank accounts are locked by the account lock manager while the transfer is made, and the sender bank account is debited in a separate transaction, which is repeated if the balance was changed concurrently.
+     *
+     * @param transferCommand the transfer to make
+     * @param idempotencyKey  the key identifying the submission
+     * @return the outcome of the submission
+     */
+    private TransferResult makeTransfer(TransferCommand transferCommand, String idempotencyKey)
+    {
+        Long originalTransferId = idempotencyCache.get(getCacheKey(transferCommand, idempotencyKey));
+        if (originalTransferId != null)
+        {
+            return new TransferResult(TransferStatus.DUPLICATE, originalTransferId);
+        }
+
+        LocalDateTime executionDate = LocalDateTime.now();
+        LocalDateTime postingDate = setPostingDate(executionDate);
+        try
+        {
+            TransferResult transferResult = accountLockManager.callWithLocks(List.of(transferCommand.getSenderBankAccountNumber(), transferCommand.getReceivingBankAccountNumber()), () -> optimisticRetryExecutor.execute(() -> debitAndCreateTransfer(transferCommand, idempotencyKey, executionDate, postingDate)));
+            if (transferResult.getStatus() == TransferStatus.MADE)
+            {
+                idempotencyCache.put(getCacheKey(transferCommand, idempotencyKey), transferResult.getTransferId());
+            }
+            return transferResult;
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            Optional<OriginalTransfer> originalTransfer = transferRepository.findOriginalTransfer(idempotencyKey);
+            if (originalTransfer.isEmpty())
+            {
+                throw e;
             }
+            return getRepeatedSubmissionResult(transferCommand, idempotencyKey, originalTransfer.get());
         }
     }
 
+    /**
+     * Debits the sender bank account and creates the transfer, if there is enough money in the account.
+     * The method loads the bank account by itself, so when it is repeated after an optimistic locking conflict it checks the current balance.
+     *
+     * @param transferCommand the transfer to make
+     * @param idempotencyKey  the key identifying the submission
+     * @param executionDate   the execution date of the transfer
+     * @param postingDate     the posting date of the transfer
+     * @return the outcome of the submission
+     */
+    private TransferResult debitAndCreateTransfer(TransferCommand transferCommand, String idempotencyKey, LocalDateTime executionDate, LocalDateTime postingDate)
+    {
+        Optional<BankAccount> bankAccount = bankAccountRepository.findByBankAccountNumber(transferCommand.getSenderBankAccountNumber());
+        if (bankAccount.isEmpty() || !isSenderBankAccount(transferCommand, bankAccount.get()))
+        {
+            return TransferResult.rejected(TransferStatus.UNKNOWN_SENDER_ACCOUNT);
+        }
+        long balance = bankAccount.get().getBalance();
+        long amountOfMoney = MinorUnits.toMinorUnits(transferCommand.getAmountOfMoney());
+        if (!isEnoughMoneyInAccount(balance, amountOfMoney))
+        {
+            return TransferResult.rejected(TransferStatus.NOT_ENOUGH_MONEY);
+        }
+        bankAccount.get().setBalance(balance - amountOfMoney);
+        Transfer transfer = buildTransfer(transferCommand, bankAccount.get(), idempotencyKey, executionDate, postingDate);
+        transferRepository.save(transfer);
+        ledgerService.debit(bankAccount.get(), transfer);
+        outboxService.transferMade(transfer);
+        applicationEventPublisher.publishEvent(new UserDataChangedEvent(bankAccount.get().getUser().getId()));
+        return new TransferResult(TransferStatus.MADE, transfer.getId());
+    }
+
+    /**
+     * Debits the sender bank accounts and creates the transfers of a batch. The commands are made in their order, so a sender bank account without enough money for all its transfers makes the first ones and rejects the rest.
+     * The balances are tracked in grosze while the batch is made and every sender bank account gets its new balance once, at the end.
+     * The method loads the bank accounts by itself, so when it is repeated after an optimistic locking conflict it checks the current balances.
+     *
+     * @param transferCommands the transfers of the batch
+     * @param idempotencyKeys  the keys identifying the submissions, in the order of the commands
+     * @param validCommands    the indexes of the commands to make
+     * @param executionDate    the execution date of the transfers
+     * @param postingDate      the posting date of the transfers
+     * @return the outcomes of the submissions, at the indexes of the made commands
+     */
+    private TransferResult[] debitAndCreateTransfers(List<TransferCommand> transferCommands, String[] idempotencyKeys, List<Integer> validCommands, LocalDateTime executionDate, LocalDateTime postingDate)
+    {
+        HashMap<String, BankAccount> senderBankAccounts = new HashMap<>();
+        for (var bankAccount : bankAccountRepository.findByBankAccountNumberIn(validCommands.stream().map(i -> transferCommands.get(i).getSenderBankAccountNumber()).collect(Collectors.toSet())))
+        {
+            senderBankAccounts.put(bankAccount.getBankAccountNumber(), bankAccount);
+        }
+
+        HashMap<String, long[]> balances = new HashMap<>();
+        for (var bankAccount : senderBankAccounts.values())
+        {
+            balances.put(bankAccount.getBankAccountNumber(), new long[]{bankAccount.getBalance()});
+        }
+
+        TransferResult[] transferResults = new TransferResult[transferCommands.size()];
+        ArrayList<Integer> madeCommands = new ArrayList<>();
+        ArrayList<Transfer> transfers = new ArrayList<>();
+        for (int i : validCommands)
+        {
+            TransferCommand transferCommand = transferCommands.get(i);
+            BankAccount bankAccount = senderBankAccounts.get(transferCommand.getSenderBankAccountNumber());
+            if (bankAccount == null || !isSenderBankAccount(transferCommand, bankAccount))
+            {
+                transferResults[i] = TransferResult.rejected(TransferStatus.UNKNOWN_SENDER_ACCOUNT);
+                continue;
+            }
+            long[] balance = balances.get(bankAccount.getBankAccountNumber());
+            long amountOfMoney = MinorUnits.toMinorUnits(transferCommand.getAmountOfMoney());
+            if (!isEnoughMoneyInAccount(balance[0], amountOfMoney))
+            {
+                transferResults[i] = TransferResult.rejected(TransferStatus.NOT_ENOUGH_MONEY);
+                continue;
+            }
+            balance[0] -= amountOfMoney;
+            madeCommands.add(i);
+            transfers.add(buildTransfer(transferCommand, bankAccount, idempotencyKeys[i], executionDate, postingDate));
+        }
+        for (var bankAccount : senderBankAccounts.values())
+        {
+            long balance = balances.get(bankAccount.getBankAccountNumber())[0];
+            if (balance != bankAccount.getBalance())
+            {
+                bankAccount.setBalance(balance);
+                applicationEventPublisher.publishEvent(new UserDataChangedEvent(bankAccount.getUser().getId()));
+            }
+        }
+
+        transferRepository.saveAll(transfers);
+        for (int j = 0; j < transfers.size(); ++j)
+        {
+            Transfer transfer = transfers.get(j);
+            ledgerService.debit(senderBankAccounts.get(transfer.getSenderBankAccountNumber()), transfer);
+            outboxService.transferMade(transfer);
+            transferResults[madeCommands.get(j)] = new TransferResult(TransferStatus.MADE, transfer.getId());
+        }
+        return transferResults;
+    }
+
+    /**
+     * Builds a new transfer from the transfer command.
+     *
+     * @param transferCommand   the transfer command
+     * @param senderBankAccount the sender bank account of the command
+     * @param idempotencyKey    the key identifying the submission
+     * @param executionDate     the execution date of the transfer
+     * @param postingDate       the posting date of the transfer
+     * @return the new, not saved transfer
+     */
+    private Transfer buildTransfer(TransferCommand transferCommand, BankAccount senderBankAccount, String idempotencyKey, LocalDateTime executionDate, LocalDateTime postingDate)
+    {
+        return Transfer.builder().
+                title(transferCommand.getTitle()).
+                amountOfMoney(transferCommand.getAmountOfMoney()).
+                senderBankAccountNumber(transferCommand.getSenderBankAccountNumber()).
+                senderBankAccount(senderBankAccount).
+                receivingBankAccountNumber(transferCommand.getReceivingBankAccountNumber()).
+                executionDate(executionDate).
+                postingDate(postingDate).
+                idempotencyKey(idempotencyKey).
+                build();
+    }
+
+    /**
+     * Checks if the bank account can be the sender bank account of the transfer command, that is if it belongs to the user of the command, when the command has one.
+     *
+     * @param transferCommand the transfer command
+     * @param bankAccount     the sender bank account of the command
+     * @return true if the bank account can be debited by the command, false otherwise
+     */
+    private boolean isSenderBankAccount(TransferCommand transferCommand, BankAccount bankAccount)
+    {
+        return transferCommand.getUserId() == null || transferCommand.getUserId().equals(bankAccount.getUser().getId());
+    }
+
+    /**
+     * Returns the idempotency key of the transfer command or a random key if the command has none.
+     *
+     * @param transferCommand the transfer command
+     * @return the key identifying the submission
+     */
+    private String getIdempotencyKey(TransferCommand transferCommand)
+    {
+        return transferCommand.getIdempotencyKey() == null ? UUID.randomUUID().toString() : transferCommand.getIdempotencyKey();
+    }
+
+    /**
+     * Returns the key under which the transfer made by a command is remembered in the idempotency cache.
+     * The key is scoped to the user and the sender bank account of the command, so a command of another user or from another sender bank account never finds the transfer in the cache and is checked against the database instead.
+     *
+     * @param transferCommand the transfer command
+     * @param idempotencyKey  the key identifying the submission
+     * @return the key of the idempotency cache
+     */
+    private String getCacheKey(TransferCommand transferCommand, String idempotencyKey)
+    {
+        return transferCommand.getUserId() + ":" + transferCommand.getSenderBankAccountNumber() + ":" + idempotencyKey;
+    }
+
+    /**
+     * Writes a rejected line of an imported file.
+     *
+     * @param rejectsWriter the writer of the rejected lines
+     * @param importedLine  the rejected line
+     * @param reason        the reason of the rejection
+     * @throws IOException if the line cannot be written
+     */
+    private void writeReject(BufferedWriter rejectsWriter, ImportedLine importedLine, String reason) throws IOException
+    {
+        rejectsWriter.write(importedLine.getLineNumber() + ";" + reason + ";" + importedLine.getLine());
+        rejectsWriter.newLine();
+    }
+
+    /**
+     * Validates the data of the transfer command which can be checked without the database.
+     *
+     * @param transferCommand the transfer command to validate
+     * @return the status describing the first problem found or null if the command is valid
+     */
+    private TransferStatus validate(TransferCommand transferCommand)
+    {
+        if (transferCommand.getTitle() == null || checkIfVarcharLengthIsNotCorrect(transferCommand.getTitle()))
+        {
+            return TransferStatus.INVALID_TITLE;
+        }
+        if (transferCommand.getAmountOfMoney() == null || checkAmount(transferCommand.getAmountOfMoney()) != null)
+        {
+            return TransferStatus.INVALID_AMOUNT;
+        }
+        if (transferCommand.getReceivingBankAccountNumber() == null || !checkIfAccountNumberIsCorrect(transferCommand.getReceivingBankAccountNumber()))
+        {
+            return TransferStatus.INVALID_ACCOUNT_NUMBER;
+        }
+        if (transferCommand.getSenderBankAccountNumber() == null)
+        {
+            return TransferStatus.UNKNOWN_SENDER_ACCOUNT;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the given amount of money can be transferred.
+     *
+     * @param amountOfMoneyToTransfer the amount of money to be checked
+     * @return the message describing the problem with the amount or null if the amount is correct
+     */
+    private String checkAmount(BigDecimal amountOfMoneyToTransfer)
+    {
+        if (isNumberNegative(amountOfMoneyToTransfer))
+        {
+            return "Podana kwota jest błędna.\nKwota nie może być liczbą ujemną.\nSpróbuj ponownie.\n";
+        }
+        if (numberIsTooLong(amountOfMoneyToTransfer) || !MinorUnits.fits(amountOfMoneyToTransfer))
+        {
+            return "Podana kwota jest błędna.\nKwota nie może być aż tak duża.\nSpróbuj ponownie.\n";
+        }
+        if (amountOfMoneyToTransfer.scale() > MinorUnits.SCALE)
+        {
+            return "Podana kwota jest błędna.\nKwota powinna się być liczbą z maksymalnie dwiema cyframi po przecinku.\nSpróbuj ponownie.\n";
+        }
+        return null;
+    }
+
     /**
      * This method checks if the given account number is correct.
      *
@@ -171,57 +739,41 @@ public class TransferService extends AbstractService
 
     /**
      * This method sets the posting date based on the execution date.
-     * If the execution date falls on a weekend, the posting date will be the next Monday at 12:00:00.
-     * If the execution date is before 12:00:00, the posting date will be the same day at 12:00:00.
-     * If the execution date is between 12:00:00 and 16:00:00, the posting date will be the same day at 16:00:00.
-     * If the execution date is after 16:00:00, the posting date will be the next day at 12:00:00.
+     * If the execution date is a business day before 12:00:00, the posting date will be the same day at 12:00:00.
+     * If the execution date is a business day between 12:00:00 and 16:00:00, the posting date will be the same day at 16:00:00.
+     * Otherwise, on weekends, bank holidays and after 16:00:00, the posting date will be the next business day at 12:00:00.
+     * All the transfers of a settlement window get exactly the same posting date, so the settlement can group them by it.
      *
      * @param executionDate the execution date
      * @return the posting date
+     * @see PostingCalendar
      */
     private LocalDateTime setPostingDate(LocalDateTime executionDate)
     {
-        LocalDateTime postingDate;
-        if (executionDate.getDayOfWeek().equals(DayOfWeek.SATURDAY) || executionDate.getDayOfWeek().equals(DayOfWeek.SUNDAY))
-        {
-            postingDate = executionDate.with(TemporalAdjusters.next(DayOfWeek.MONDAY)).withHour(12).withMinute(0).withSecond(0);
-        }
-        else if (executionDate.getHour() < 12)
-        {
-            postingDate = executionDate.withHour(12).withMinute(0).withSecond(0);
-        }
-        else if (executionDate.getHour() < 16)
-        {
-            postingDate = executionDate.withHour(16).withMinute(0).withSecond(0);
-        }
-        else
-        {
-            postingDate = executionDate.plusDays(1).withHour(12).withMinute(0).withSecond(0);
-        }
-        return postingDate;
+        return postingCalendar.getPostingDate(executionDate);
     }
 
     /**
      * Checks if the account has enough money to perform a transfer.
      *
-     * @param balance                 The current balance of the account.
-     * @param amountOfMoneyToTransfer The amount of money to be transferred from the account.
+     * @param balance                 The current balance of the account in grosze.
+     * @param amountOfMoneyToTransfer The amount of money to be transferred from the account in grosze.
      * @return True if the account has enough money to perform the transfer, false otherwise.
      */
-    private boolean isEnoughMoneyInAccount(BigDecimal balance, BigDecimal amountOfMoneyToTransfer)
+    private boolean isEnoughMoneyInAccount(long balance, long amountOfMoneyToTransfer)
     {
-        return balance.subtract(amountOfMoneyToTransfer).compareTo(BigDecimal.ZERO) > 0;
+        return balance - amountOfMoneyToTransfer > 0;
     }
 
     /**
      * Allows the user to choose one bank account from a list of bank accounts associated with a user's ID.
      *
      * @param userId The ID of the user whose bank accounts are being displayed.
-     * @return The ID of the chosen bank account.
+     * @return The chosen bank account.
      * @throws IncorrectBankAccountException if the user enters an invalid option.
      * @throws Exception                     if a fatal error occurs.
      */
-    private Long chooseOneBankAccount(UserId userId)
+    private BankAccount chooseOneBankAccount(UserId userId)
     {
         ArrayList<BankAccount> bankAccountsList = bankAccountRepository.findByUserId(userId.getId());
         int amountOfBankAccounts = bankAccountsList.size();
@@ -242,7 +794,7 @@ public class TransferService extends AbstractService
                 scanner = new Scanner(System.in);
                 if (checkIfCorrectProductIsSelected(selectedBankAccount, amountOfBankAccounts))
                 {
-                    return bankAccountsList.get(selectedBankAccount).getId();
+                    return bankAccountsList.get(selectedBankAccount);
                 }
                 else
                 {
@@ -271,4 +823,50 @@ public class TransferService extends AbstractService
      * transferRepository is an instance variable of type TransferRepository, used to access and manipulate transfer data in the database.
      */
     private final TransferRepository transferRepository;
+
+    /**
+     * optimisticRetryExecutor is used to debit the sender bank account in a new transaction, retried on optimistic locking conflicts.
+     */
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    /**
+     * accountLockManager is used to lock the sender and receiver bank accounts while the transfer is made.
+     */
+    private final AccountLockManager accountLockManager;
+
+    /**
+     * idempotencyCache is used to answer repeated submissions of the same transfer without touching the database.
+     */
+    private final IdempotencyCache idempotencyCache;
+
+    /**
+     * ledgerService is used to book the debits of the sender bank accounts in the ledger.
+     */
+    private final LedgerService ledgerService;
+
+    /**
+     * outboxService is used to publish the made transfers.
+     */
+    private final OutboxService outboxService;
+
+    /**
+     * postingCalendar is used to find the settlement session in which a transfer is posted.
+     */
+    private final PostingCalendar postingCalendar;
+
+    /**
+     * velocityGuard is used to limit the number and the amount of the transfers made from a bank account in a short time.
+     */
+    private final VelocityGuard velocityGuard;
+
+    /**
+     * Number of the imported lines submitted together in one batch.
+     */
+    @Value("${bank.import.batch-size}")
+    private int importBatchSize;
+
+    /**
+     * applicationEventPublisher is used to publish the changes of the balances of the users, so their desktop summaries are invalidated.
+     */
+    private final ApplicationEventPublisher applicationEventPublisher;
 }
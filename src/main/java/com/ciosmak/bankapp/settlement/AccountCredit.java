@@ -0,0 +1,32 @@
+package com.ciosmak.bankapp.settlement;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The AccountCredit class holds the sum of the settled transfers received by a single bank account.
+ * The settlement applies one balance update per such credit instead of one update per transfer.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.SettlementService
+ */
+@Value
+public class AccountCredit
+{
+    /**
+     * Bank account number of the receiving bank account.
+     */
+    String bankAccountNumber;
+
+    /**
+     * Sum of the amounts of money of the transfers.
+     */
+    BigDecimal amountOfMoney;
+
+    /**
+     * Number of the transfers.
+     */
+    Long numberOfTransfers;
+}
@@ -0,0 +1,32 @@
+package com.ciosmak.bankapp.settlement;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * The DueTransfer class is a lightweight view of a transfer waiting for the settlement.
+ * It holds only the data needed to assign the transfer to a settlement worker, so the coordinator does not have to load whole transfers.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.SettlementService
+ */
+@Value
+public class DueTransfer
+{
+    /**
+     * Id of the transfer.
+     */
+    Long id;
+
+    /**
+     * Bank account number of the receiving bank account.
+     */
+    String receivingBankAccountNumber;
+
+    /**
+     * Posting date of the transfer.
+     */
+    LocalDateTime postingDate;
+}
@@ -0,0 +1,27 @@
+package com.ciosmak.bankapp.settlement;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * The SettlementReport class describes the result of a single settlement run.
+ * It holds the number of transfers that were settled and the oldest posting date among them, which is used to measure how far behind the settlement is.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see SettlementScheduler
+ */
+@Value
+public class SettlementReport
+{
+    /**
+     * Number of transfers settled during the run.
+     */
+    int settledTransfers;
+
+    /**
+     * The oldest posting date among the settled transfers or null if nothing was settled.
+     */
+    LocalDateTime oldestPostingDate;
+}
@@ -0,0 +1,126 @@
+package com.ciosmak.bankapp.settlement;
+
+import com.ciosmak.bankapp.calendar.PostingCalendar;
+import com.ciosmak.bankapp.service.SettlementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The SettlementScheduler class settles pending transfers in the background, on the scheduler thread, so that opening the login menu does not depend on the number of pending transfers.
+ * The settlement runs at the posting cutoffs used by the transfer service (12:00 and 16:00 on business days) and additionally at a fixed delay, which catches up on the transfers that became due while the application was not running.
+ * The time of the last run, the number of transfers settled by it and the settlement lag are exposed for monitoring.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see SettlementService#autoMakeTransfers()
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class SettlementScheduler
+{
+    /**
+     * Settles the transfers at the posting cutoffs. The cron expression only knows the weekends, so the cutoffs falling on bank holidays are skipped here.
+     */
+    @Scheduled(cron = "${bank.settlement.cron}")
+    public void settleAtCutoff()
+    {
+        if (postingCalendar.isBusinessDay(LocalDate.now()))
+        {
+            settle();
+        }
+    }
+
+    /**
+     * Settles the transfers that became due between the cutoffs, for example while the application was not running.
+     */
+    @Scheduled(initialDelayString = "${bank.settlement.catch-up-initial-delay}", fixedDelayString = "${bank.settlement.catch-up-delay}")
+    public void catchUp()
+    {
+        settle();
+    }
+
+    /**
+     * Returns the start time of the last settlement run.
+     *
+     * @return the start time of the last run or null if the settlement has not run yet
+     */
+    public LocalDateTime getLastRunTime()
+    {
+        return lastRunTime;
+    }
+
+    /**
+     * Returns the number of transfers settled by the last run.
+     *
+     * @return the number of transfers settled by the last run
+     */
+    public int getLastBatchSize()
+    {
+        return lastBatchSize;
+    }
+
+    /**
+     * Returns the settlement lag of the last run, that is the time between the oldest posting date settled by the run and the start of the run.
+     *
+     * @return the settlement lag of the last run
+     */
+    public Duration getLastLag()
+    {
+        return lastLag;
+    }
+
+    /**
+     * Runs the settlement and records its statistics.
+     */
+    private synchronized void settle()
+    {
+        LocalDateTime startTime = LocalDateTime.now();
+        try
+        {
+            SettlementReport report = settlementService.autoMakeTransfers();
+            lastRunTime = startTime;
+            lastBatchSize = report.getSettledTransfers();
+            lastLag = report.getOldestPostingDate() == null ? Duration.ZERO : Duration.between(report.getOldestPostingDate(), startTime);
+            if (lastBatchSize > 0)
+            {
+                log.info("Settled {} transfers, lag {}", lastBatchSize, lastLag);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Settlement failed", e);
+        }
+    }
+
+    /**
+     * settlementService is used to settle the pending transfers.
+     */
+    private final SettlementService settlementService;
+
+    /**
+     * postingCalendar is used to skip the cutoffs on the days on which the bank is closed.
+     */
+    private final PostingCalendar postingCalendar;
+
+    /**
+     * Start time of the last settlement run.
+     */
+    private volatile LocalDateTime lastRunTime;
+
+    /**
+     * Number of transfers settled by the last run.
+     */
+    private volatile int lastBatchSize;
+
+    /**
+     * Settlement lag of the last run.
+     */
+    private volatile Duration lastLag = Duration.ZERO;
+}
@@ -0,0 +1,53 @@
+package com.ciosmak.bankapp.standing.order;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The DueStandingOrder class is a read-only view of a standing order whose transfer is due.
+ * It holds the data needed to make the transfer, so the due standing orders are read without loading whole entities into the persistence context.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.StandingOrderService#executeDueStandingOrders(LocalDate)
+ */
+@Value
+public class DueStandingOrder
+{
+    /**
+     * Id of the standing order.
+     */
+    Long id;
+
+    /**
+     * Id of the user owning the standing order.
+     */
+    Long userId;
+
+    /**
+     * Bank account number of the sender bank account.
+     */
+    String senderBankAccountNumber;
+
+    /**
+     * Bank account number of the receiving bank account.
+     */
+    String receivingBankAccountNumber;
+
+    /**
+     * Amount of money to transfer.
+     */
+    BigDecimal amountOfMoney;
+
+    /**
+     * Title of the transfer.
+     */
+    String title;
+
+    /**
+     * Date on which the transfer is due.
+     */
+    LocalDate nextExecutionDate;
+}
@@ -0,0 +1,71 @@
+package com.ciosmak.bankapp.standing.order;
+
+import java.time.LocalDate;
+
+/**
+ * The StandingOrderFrequency enum tells how often a standing order makes its transfer.
+ * The execution dates are always computed from the first execution date, so a monthly order starting on the 31st is made on the last day of the shorter months and again on the 31st afterwards.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.entity.StandingOrder
+ */
+public enum StandingOrderFrequency
+{
+    /**
+     * The transfer is made every day.
+     */
+    DAILY("Codziennie"),
+
+    /**
+     * The transfer is made every week.
+     */
+    WEEKLY("Co tydzień"),
+
+    /**
+     * The transfer is made every month.
+     */
+    MONTHLY("Co miesiąc");
+
+    /**
+     * Creates the frequency.
+     *
+     * @param name the name of the frequency shown to the user
+     */
+    StandingOrderFrequency(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Returns the date of the given execution of a standing order.
+     *
+     * @param firstExecutionDate the date of the first execution
+     * @param execution          the number of the execution, 0 for the first one
+     * @return the date of the execution
+     */
+    public LocalDate getExecutionDate(LocalDate firstExecutionDate, int execution)
+    {
+        return switch (this)
+        {
+            case DAILY -> firstExecutionDate.plusDays(execution);
+            case WEEKLY -> firstExecutionDate.plusWeeks(execution);
+            case MONTHLY -> firstExecutionDate.plusMonths(execution);
+        };
+    }
+
+    /**
+     * Returns the name of the frequency shown to the user.
+     *
+     * @return the name of the frequency
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * The name of the frequency shown to the user.
+     */
+    private final String name;
+}
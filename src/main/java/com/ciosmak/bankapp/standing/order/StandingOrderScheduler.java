@@ -0,0 +1,65 @@
+package com.ciosmak.bankapp.standing.order;
+
+import com.ciosmak.bankapp.service.StandingOrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * The StandingOrderScheduler class makes the transfers of the due standing orders in the background.
+ * It runs before the posting cutoffs, so the transfers of the standing orders are settled in the same settlement window as the transfers made by the users, and additionally at a fixed delay, which catches up on the standing orders missed while the application was not running.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see StandingOrderService#executeDueStandingOrders(LocalDate)
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class StandingOrderScheduler
+{
+    /**
+     * Makes the transfers of the due standing orders before the posting cutoffs.
+     */
+    @Scheduled(cron = "${bank.standing-orders.cron}")
+    public void executeAtCutoff()
+    {
+        execute();
+    }
+
+    /**
+     * Makes the transfers of the standing orders which became due while the application was not running.
+     */
+    @Scheduled(initialDelayString = "${bank.standing-orders.catch-up-initial-delay}", fixedDelayString = "${bank.standing-orders.catch-up-delay}")
+    public void catchUp()
+    {
+        execute();
+    }
+
+    /**
+     * Makes the transfers of the standing orders due today.
+     */
+    private synchronized void execute()
+    {
+        try
+        {
+            int madeTransfers = standingOrderService.executeDueStandingOrders(LocalDate.now());
+            if (madeTransfers > 0)
+            {
+                log.info("Made {} transfers of standing orders", madeTransfers);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            log.error("Executing standing orders failed", e);
+        }
+    }
+
+    /**
+     * standingOrderService is used to make the transfers of the due standing orders.
+     */
+    private final StandingOrderService standingOrderService;
+}
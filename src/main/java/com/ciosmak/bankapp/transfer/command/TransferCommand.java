@@ -0,0 +1,49 @@
+package com.ciosmak.bankapp.transfer.command;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * The TransferCommand class describes a single transfer to be made through {@link com.ciosmak.bankapp.service.TransferService#submit(TransferCommand)}.
+ * It carries everything needed to make the transfer, so the transfer can be submitted without any interaction with the user.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.transfer.result.TransferResult
+ */
+@Value
+@Builder
+public class TransferCommand
+{
+    /**
+     * Id of the user making the transfer. When it is set, the sender bank account has to belong to this user.
+     */
+    Long userId;
+
+    /**
+     * Bank account number of the sender bank account.
+     */
+    String senderBankAccountNumber;
+
+    /**
+     * Bank account number of the receiving bank account.
+     */
+    String receivingBankAccountNumber;
+
+    /**
+     * Amount of money to transfer.
+     */
+    BigDecimal amountOfMoney;
+
+    /**
+     * Title of the transfer.
+     */
+    String title;
+
+    /**
+     * Key identifying the submission. Submitting a command with an already used key returns the original transfer. When it is not set, a random key is used.
+     */
+    String idempotencyKey;
+}
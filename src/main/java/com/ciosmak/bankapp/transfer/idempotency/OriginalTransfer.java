@@ -0,0 +1,48 @@
+package com.ciosmak.bankapp.transfer.idempotency;
+
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import lombok.Value;
+
+/**
+ * The OriginalTransfer class is a lightweight view of a transfer found by its idempotency key.
+ * It holds only the data needed to answer a repeated submission, so looking up the keys of a batch does not load whole transfers into the persistence context.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.TransferService
+ */
+@Value
+public class OriginalTransfer
+{
+    /**
+     * Checks if the transfer could have been made by the given command, that is if it was sent from the same sender bank account and that bank account belongs to the user of the command, when the command has one.
+     * A command using the idempotency key of a transfer made by someone else must not learn anything about that transfer.
+     *
+     * @param transferCommand the repeated submission
+     * @return true if the transfer is the original transfer of the command, false otherwise
+     */
+    public boolean isSubmittedBy(TransferCommand transferCommand)
+    {
+        return senderBankAccountNumber.equals(transferCommand.getSenderBankAccountNumber()) && (transferCommand.getUserId() == null || transferCommand.getUserId().equals(userId));
+    }
+
+    /**
+     * Idempotency key of the transfer.
+     */
+    String idempotencyKey;
+
+    /**
+     * Id of the transfer.
+     */
+    Long id;
+
+    /**
+     * Bank account number of the sender bank account.
+     */
+    String senderBankAccountNumber;
+
+    /**
+     * Id of the user owning the sender bank account.
+     */
+    Long userId;
+}
@@ -0,0 +1,41 @@
+package com.ciosmak.bankapp.transfer.importer;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * The ImportReport class summarizes an import of a transfer file.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see com.ciosmak.bankapp.service.TransferService#importTransfers(Path, Long)
+ */
+@Value
+public class ImportReport
+{
+    /**
+     * Number of the read lines, without the empty ones.
+     */
+    long lines;
+
+    /**
+     * Number of the transfers made by the import.
+     */
+    long madeTransfers;
+
+    /**
+     * Number of the lines which had already been imported before.
+     */
+    long duplicates;
+
+    /**
+     * Number of the rejected lines.
+     */
+    long rejects;
+
+    /**
+     * The file to which the rejected lines were written.
+     */
+    Path rejectsFile;
+}
@@ -0,0 +1,30 @@
+package com.ciosmak.bankapp.transfer.importer;
+
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import lombok.Value;
+
+/**
+ * The ImportedLine class is a single line read from a transfer file together with the transfer command parsed from it.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see TransferFileReader
+ */
+@Value
+public class ImportedLine
+{
+    /**
+     * Number of the line in the file, starting from 1.
+     */
+    long lineNumber;
+
+    /**
+     * The line as it was read from the file.
+     */
+    String line;
+
+    /**
+     * The transfer command parsed from the line, null if the line has an invalid format.
+     */
+    TransferCommand transferCommand;
+}
@@ -0,0 +1,191 @@
+package com.ciosmak.bankapp.transfer.importer;
+
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * The TransferFileReader class reads a transfer file line by line and parses every line into a transfer command, so files of any size are read in constant memory.
+ * A file is either a CSV file with lines in the format sender;receiver;amount;title or a fixed width file, with lines made of the 26 digit sender and receiver account numbers, the amount right aligned on 15 characters and the title in the rest of the line.
+ * The format is detected once, from the first not empty line of the file, so a fixed width line whose title contains a semicolon is still read as a fixed width line.
+ * Every command gets an idempotency key derived from the file name, the line number and the line, so importing the same file again does not make the transfers twice.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see ImportedLine
+ */
+public class TransferFileReader implements Closeable
+{
+    /**
+     * Opens the transfer file.
+     *
+     * @param file   the transfer file
+     * @param userId id of the user making the transfers, the sender bank accounts have to belong to this user
+     * @throws IOException if the file cannot be opened
+     */
+    public TransferFileReader(Path file, Long userId) throws IOException
+    {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.fileName = file.getFileName().toString();
+        this.userId = userId;
+    }
+
+    /**
+     * Reads the next not empty line of the file.
+     *
+     * @return the read line or null if the end of the file is reached
+     * @throws IOException if the file cannot be read
+     */
+    public ImportedLine next() throws IOException
+    {
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            ++lineNumber;
+            if (!line.isBlank())
+            {
+                if (fixedWidth == null)
+                {
+                    fixedWidth = isFixedWidthLine(line);
+                }
+                return new ImportedLine(lineNumber, line, parse(line));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the transfer file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+
+    /**
+     * Parses a line into a transfer command.
+     *
+     * @param line the line to parse
+     * @return the transfer command or null if the line has an invalid format
+     */
+    private TransferCommand parse(String line)
+    {
+        String sender;
+        String receiver;
+        String amount;
+        String title;
+        if (!fixedWidth)
+        {
+            String[] fields = line.split(";", 4);
+            if (fields.length < 4)
+            {
+                return null;
+            }
+            sender = fields[0];
+            receiver = fields[1];
+            amount = fields[2];
+            title = fields[3];
+        }
+        else
+        {
+            if (!isFixedWidthLine(line))
+            {
+                return null;
+            }
+            sender = line.substring(0, ACCOUNT_NUMBER_LENGTH);
+            receiver = line.substring(ACCOUNT_NUMBER_LENGTH, AMOUNT_OFFSET);
+            amount = line.substring(AMOUNT_OFFSET, TITLE_OFFSET);
+            title = line.substring(TITLE_OFFSET);
+        }
+
+        BigDecimal amountOfMoney;
+        try
+        {
+            amountOfMoney = new BigDecimal(amount.trim().replace(',', '.'));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+        return TransferCommand.builder().
+                userId(userId).
+                senderBankAccountNumber(sender.trim()).
+                receivingBankAccountNumber(receiver.trim()).
+                amountOfMoney(amountOfMoney).
+                title(title.trim()).
+                idempotencyKey("import:" + UUID.nameUUIDFromBytes((fileName + ":" + lineNumber + ":" + line).getBytes(StandardCharsets.UTF_8))).
+                build();
+    }
+
+    /**
+     * Checks if a line has the fixed width format, that is if it is long enough to contain a title and starts with the digits of two bank account numbers.
+     *
+     * @param line the line to check
+     * @return true if the line is a fixed width line, false otherwise
+     */
+    private static boolean isFixedWidthLine(String line)
+    {
+        if (line.length() < TITLE_OFFSET)
+        {
+            return false;
+        }
+        for (int i = 0; i < AMOUNT_OFFSET; ++i)
+        {
+            if (!Character.isDigit(line.charAt(i)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Length of a bank account number in a fixed width line.
+     */
+    private static final int ACCOUNT_NUMBER_LENGTH = 26;
+
+    /**
+     * Offset of the amount in a fixed width line.
+     */
+    private static final int AMOUNT_OFFSET = 2 * ACCOUNT_NUMBER_LENGTH;
+
+    /**
+     * Offset of the title in a fixed width line.
+     */
+    private static final int TITLE_OFFSET = AMOUNT_OFFSET + 15;
+
+    /**
+     * Reader of the transfer file.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Name of the transfer file, used in the idempotency keys.
+     */
+    private final String fileName;
+
+    /**
+     * Id of the user making the transfers.
+     */
+    private final Long userId;
+
+    /**
+     * Number of the last read line.
+     */
+    private long lineNumber;
+
+    /**
+     * True if the file has the fixed width format, false if it is a CSV file, null until the first not empty line is read.
+     */
+    private Boolean fixedWidth;
+}
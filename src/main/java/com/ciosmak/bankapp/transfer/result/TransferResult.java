@@ -0,0 +1,46 @@
+package com.ciosmak.bankapp.transfer.result;
+
+import lombok.Value;
+
+/**
+ * The TransferResult class is returned by {@link com.ciosmak.bankapp.service.TransferService#submit(com.ciosmak.bankapp.transfer.command.TransferCommand)}.
+ * It holds the outcome of the submission and, when a transfer was made or found, the id of that transfer.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see TransferStatus
+ */
+@Value
+public class TransferResult
+{
+    /**
+     * Creates a result of a submission which did not make a transfer.
+     *
+     * @param status the outcome of the submission
+     * @return the result without a transfer
+     */
+    public static TransferResult rejected(TransferStatus status)
+    {
+        return new TransferResult(status, null);
+    }
+
+    /**
+     * Checks if the submission ended with a transfer, either a new or the original one.
+     *
+     * @return true if the transfer was made or had already been made, false otherwise
+     */
+    public boolean isAccepted()
+    {
+        return status == TransferStatus.MADE || status == TransferStatus.DUPLICATE;
+    }
+
+    /**
+     * The outcome of the submission.
+     */
+    TransferStatus status;
+
+    /**
+     * Id of the made or the original transfer, null if no transfer was made.
+     */
+    Long transferId;
+}
@@ -0,0 +1,56 @@
+package com.ciosmak.bankapp.transfer.result;
+
+/**
+ * The TransferStatus enum lists the possible outcomes of a submitted transfer.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see TransferResult
+ */
+public enum TransferStatus
+{
+    /**
+     * The transfer was made.
+     */
+    MADE,
+
+    /**
+     * A transfer with the same idempotency key had already been made, the original transfer is returned.
+     */
+    DUPLICATE,
+
+    /**
+     * The idempotency key was already used by a transfer from another sender bank account or of another user, nothing is made and the other transfer is not revealed.
+     */
+    IDEMPOTENCY_KEY_CONFLICT,
+
+    /**
+     * The title of the transfer is missing or too long.
+     */
+    INVALID_TITLE,
+
+    /**
+     * The amount of money is missing, negative, too large or has more than two decimal places.
+     */
+    INVALID_AMOUNT,
+
+    /**
+     * The receiving bank account number does not consist of 26 digits.
+     */
+    INVALID_ACCOUNT_NUMBER,
+
+    /**
+     * The sender bank account does not exist or does not belong to the user.
+     */
+    UNKNOWN_SENDER_ACCOUNT,
+
+    /**
+     * There is not enough money in the sender bank account.
+     */
+    NOT_ENOUGH_MONEY,
+
+    /**
+     * The sender bank account has made too many transfers or sent too much money recently.
+     */
+    VELOCITY_LIMIT_EXCEEDED
+}
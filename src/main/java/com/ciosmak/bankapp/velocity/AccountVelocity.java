@@ -0,0 +1,97 @@
+package com.ciosmak.bankapp.velocity;
+
+/**
+ * The AccountVelocity class holds the sliding windows of the outgoing transfers of one bank account: the last minute in seconds, the last hour in minutes and the last day in hours.
+ * A transfer is checked against all the windows and added to all of them in one synchronized step, so concurrent transfers from the same bank account cannot pass the limits together.
+ * The windows of an idle bank account are evicted by the {@link VelocityGuard}; an evicted instance does not take any more transfers, so a transfer racing with the eviction is reserved again in new windows instead of being lost.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ */
+final class AccountVelocity
+{
+    /**
+     * Creates the windows of a bank account.
+     *
+     * @param minute the window of the last minute
+     * @param hour   the window of the last hour
+     * @param day    the window of the last day
+     */
+    AccountVelocity(SlidingWindow minute, SlidingWindow hour, SlidingWindow day)
+    {
+        this.minute = minute;
+        this.hour = hour;
+        this.day = day;
+    }
+
+    /**
+     * Checks a transfer against the limits and, unless it is rejected, adds it to the windows.
+     *
+     * @param amount     the amount of the transfer in grosze
+     * @param now        the current time in milliseconds
+     * @param mode       what to do with a transfer exceeding a limit
+     * @param checkCount whether the maximum counts are checked, the maximum amounts are always checked
+     * @return the decision about the transfer or null if the windows were evicted and the transfer has to be reserved again
+     */
+    synchronized VelocityVerdict reserve(long amount, long now, VelocityMode mode, boolean checkCount)
+    {
+        if (evicted)
+        {
+            return null;
+        }
+        boolean exceeded = minute.isExceededBy(amount, now, checkCount) | hour.isExceededBy(amount, now, checkCount) | day.isExceededBy(amount, now, checkCount);
+        if (exceeded && mode == VelocityMode.REJECT)
+        {
+            return VelocityVerdict.REJECTED;
+        }
+        minute.add(amount, now);
+        hour.add(amount, now);
+        day.add(amount, now);
+        return exceeded ? VelocityVerdict.FLAGGED : VelocityVerdict.ALLOWED;
+    }
+
+    /**
+     * Removes a reserved transfer from the windows.
+     *
+     * @param amount the amount of the transfer in grosze
+     * @param time   the time at which the transfer was reserved, in milliseconds
+     */
+    synchronized void release(long amount, long time)
+    {
+        minute.remove(amount, time);
+        hour.remove(amount, time);
+        day.remove(amount, time);
+    }
+
+    /**
+     * Marks the windows as evicted if there are no transfers in the last day, which also covers the last hour and minute.
+     *
+     * @param now the current time in milliseconds
+     * @return true if the windows were evicted, false otherwise
+     */
+    synchronized boolean evictIfIdle(long now)
+    {
+        evicted = day.isEmpty(now);
+        return evicted;
+    }
+
+    /**
+     * The window of the last minute.
+     */
+    private final SlidingWindow minute;
+
+    /**
+     * The window of the last hour.
+     */
+    private final SlidingWindow hour;
+
+    /**
+     * The window of the last day.
+     */
+    private final SlidingWindow day;
+
+    /**
+     * Whether the windows were evicted from the velocity guard.
+     */
+    private boolean evicted;
+}
@@ -0,0 +1,159 @@
+package com.ciosmak.bankapp.velocity;
+
+/**
+ * The SlidingWindow class counts the transfers of one bank account and sums their amounts over a period of time, for example the last hour.
+ * The period is divided into a fixed number of buckets kept in a ring, so the window slides by one bucket at a time and the memory used does not depend on the number of transfers.
+ * The totals of the whole window are kept up to date when a bucket is added or leaves the window, so reading them does not go through the buckets.
+ * The class is not thread safe, it is guarded by the {@link AccountVelocity} which owns it.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ */
+final class SlidingWindow
+{
+    /**
+     * Creates an empty window.
+     *
+     * @param numberOfBuckets the number of buckets of the window
+     * @param bucketLength    the length of one bucket in milliseconds
+     * @param maximumCount    the maximum number of transfers in the window
+     * @param maximumAmount   the maximum sum of the amounts in the window, in grosze
+     */
+    SlidingWindow(int numberOfBuckets, long bucketLength, int maximumCount, long maximumAmount)
+    {
+        this.counts = new int[numberOfBuckets];
+        this.amounts = new long[numberOfBuckets];
+        this.bucketLength = bucketLength;
+        this.maximumCount = maximumCount;
+        this.maximumAmount = maximumAmount;
+    }
+
+    /**
+     * Checks if one more transfer would exceed the limits of the window.
+     *
+     * @param amount     the amount of the transfer in grosze
+     * @param now        the current time in milliseconds
+     * @param checkCount whether the maximum count is checked, the maximum amount is always checked
+     * @return true if the transfer would exceed the maximum count or the maximum amount, false otherwise
+     */
+    boolean isExceededBy(long amount, long now, boolean checkCount)
+    {
+        slide(now);
+        return (checkCount && totalCount + 1 > maximumCount) || totalAmount + amount > maximumAmount;
+    }
+
+    /**
+     * Checks if there are no transfers in the window.
+     *
+     * @param now the current time in milliseconds
+     * @return true if all the transfers in the window have left it, false otherwise
+     */
+    boolean isEmpty(long now)
+    {
+        slide(now);
+        return totalCount == 0;
+    }
+
+    /**
+     * Adds a transfer to the window.
+     *
+     * @param amount the amount of the transfer in grosze
+     * @param now    the time of the transfer in milliseconds
+     */
+    void add(long amount, long now)
+    {
+        slide(now);
+        int index = (int) (lastBucket % counts.length);
+        ++counts[index];
+        amounts[index] += amount;
+        ++totalCount;
+        totalAmount += amount;
+    }
+
+    /**
+     * Removes a transfer added at the given time, if its bucket is still in the window.
+     *
+     * @param amount the amount of the transfer in grosze
+     * @param time   the time at which the transfer was added, in milliseconds
+     */
+    void remove(long amount, long time)
+    {
+        long bucket = time / bucketLength;
+        if (bucket > lastBucket || bucket <= lastBucket - counts.length)
+        {
+            return;
+        }
+        int index = (int) (bucket % counts.length);
+        if (counts[index] > 0)
+        {
+            --counts[index];
+            amounts[index] -= amount;
+            --totalCount;
+            totalAmount -= amount;
+        }
+    }
+
+    /**
+     * Moves the window to the given time, emptying the buckets which left it. A time earlier than the current bucket, for example after the system clock went back, leaves the window as it is.
+     *
+     * @param now the current time in milliseconds
+     */
+    private void slide(long now)
+    {
+        long bucket = now / bucketLength;
+        if (bucket <= lastBucket)
+        {
+            return;
+        }
+        long steps = Math.min(bucket - lastBucket, counts.length);
+        for (long step = 1; step <= steps; ++step)
+        {
+            int index = (int) ((lastBucket + step) % counts.length);
+            totalCount -= counts[index];
+            totalAmount -= amounts[index];
+            counts[index] = 0;
+            amounts[index] = 0L;
+        }
+        lastBucket = bucket;
+    }
+
+    /**
+     * Number of transfers in every bucket.
+     */
+    private final int[] counts;
+
+    /**
+     * Sum of the amounts in grosze in every bucket.
+     */
+    private final long[] amounts;
+
+    /**
+     * Length of one bucket in milliseconds.
+     */
+    private final long bucketLength;
+
+    /**
+     * Maximum number of transfers in the window.
+     */
+    private final int maximumCount;
+
+    /**
+     * Maximum sum of the amounts in the window, in grosze.
+     */
+    private final long maximumAmount;
+
+    /**
+     * Number of the newest bucket of the window, counted from the epoch.
+     */
+    private long lastBucket;
+
+    /**
+     * Number of transfers in the window.
+     */
+    private int totalCount;
+
+    /**
+     * Sum of the amounts in the window, in grosze.
+     */
+    private long totalAmount;
+}
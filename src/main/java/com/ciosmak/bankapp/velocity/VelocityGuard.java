@@ -0,0 +1,205 @@
+package com.ciosmak.bankapp.velocity;
+
+import com.ciosmak.bankapp.money.MinorUnits;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The VelocityGuard class limits how many outgoing transfers a bank account can make and how much money it can send in the last minute, hour and day.
+ * The counters are kept in memory, in sliding windows of a fixed size for every sender bank account, so a check is a map lookup and a few array operations and never queries the database.
+ * A transfer is reserved before it is made and released if it is not made after all, so only the transfers which really left the bank account count towards the limits.
+ * Depending on the configured mode a transfer exceeding a limit is rejected or only flagged in the log.
+ * Transfers submitted in batches, like imports, are checked only against the maximum amounts, since a batch legitimately makes many transfers at once, but they are counted like any other transfer.
+ * The transfers of standing orders are not checked at all, so the maximum amounts, for example the default of 20000.00 a minute, limit only the transfers a user makes by hand or imports, and a larger single transfer of that kind is rejected on purpose.
+ * The counters start empty when the application starts, and the windows of bank accounts without any transfer in the last day are evicted periodically, so the memory used depends only on the recently active bank accounts.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see VelocityMode
+ */
+@Slf4j
+@Component
+public class VelocityGuard
+{
+    /**
+     * Creates the guard.
+     *
+     * @param mode                what to do with a transfer exceeding a limit
+     * @param minuteMaximumCount  the maximum number of transfers in a minute
+     * @param minuteMaximumAmount the maximum amount of money sent in a minute
+     * @param hourMaximumCount    the maximum number of transfers in an hour
+     * @param hourMaximumAmount   the maximum amount of money sent in an hour
+     * @param dayMaximumCount     the maximum number of transfers in a day
+     * @param dayMaximumAmount    the maximum amount of money sent in a day
+     */
+    public VelocityGuard(@Value("${bank.velocity.mode}") VelocityMode mode,
+                         @Value("${bank.velocity.minute.max-count}") int minuteMaximumCount, @Value("${bank.velocity.minute.max-amount}") BigDecimal minuteMaximumAmount,
+                         @Value("${bank.velocity.hour.max-count}") int hourMaximumCount, @Value("${bank.velocity.hour.max-amount}") BigDecimal hourMaximumAmount,
+                         @Value("${bank.velocity.day.max-count}") int dayMaximumCount, @Value("${bank.velocity.day.max-amount}") BigDecimal dayMaximumAmount)
+    {
+        this.mode = mode;
+        this.minuteMaximumCount = minuteMaximumCount;
+        this.minuteMaximumAmount = MinorUnits.toMinorUnits(minuteMaximumAmount);
+        this.hourMaximumCount = hourMaximumCount;
+        this.hourMaximumAmount = MinorUnits.toMinorUnits(hourMaximumAmount);
+        this.dayMaximumCount = dayMaximumCount;
+        this.dayMaximumAmount = MinorUnits.toMinorUnits(dayMaximumAmount);
+    }
+
+    /**
+     * Checks an outgoing transfer against the limits of its sender bank account and, unless it is rejected, counts it.
+     * A counted transfer which is not made after all has to be released with the {@link #release(String, long, long)} method.
+     *
+     * @param senderBankAccountNumber the sender bank account number
+     * @param amount                  the amount of the transfer in grosze
+     * @param now                     the current time in milliseconds
+     * @return the decision about the transfer
+     */
+    public VelocityVerdict reserve(String senderBankAccountNumber, long amount, long now)
+    {
+        return reserve(senderBankAccountNumber, amount, now, true);
+    }
+
+    /**
+     * Checks an outgoing transfer of a batch against the maximum amounts of its sender bank account and, unless it is rejected, counts it.
+     * A counted transfer which is not made after all has to be released with the {@link #release(String, long, long)} method.
+     *
+     * @param senderBankAccountNumber the sender bank account number
+     * @param amount                  the amount of the transfer in grosze
+     * @param now                     the current time in milliseconds
+     * @return the decision about the transfer
+     */
+    public VelocityVerdict reserveAmount(String senderBankAccountNumber, long amount, long now)
+    {
+        return reserve(senderBankAccountNumber, amount, now, false);
+    }
+
+    /**
+     * Stops counting a reserved transfer which was not made.
+     *
+     * @param senderBankAccountNumber the sender bank account number
+     * @param amount                  the amount of the transfer in grosze
+     * @param time                    the time passed when the transfer was reserved, in milliseconds
+     */
+    public void release(String senderBankAccountNumber, long amount, long time)
+    {
+        AccountVelocity accountVelocity = accounts.get(senderBankAccountNumber);
+        if (accountVelocity != null)
+        {
+            accountVelocity.release(amount, time);
+        }
+    }
+
+    /**
+     * Evicts the windows of the bank accounts without any transfer in the last day.
+     */
+    @Scheduled(initialDelayString = "${bank.velocity.eviction-delay}", fixedDelayString = "${bank.velocity.eviction-delay}")
+    public void evictIdleAccounts()
+    {
+        long now = System.currentTimeMillis();
+        int numberOfAccounts = accounts.size();
+        accounts.values().removeIf(accountVelocity -> accountVelocity.evictIfIdle(now));
+        int evictedAccounts = numberOfAccounts - accounts.size();
+        if (evictedAccounts > 0)
+        {
+            log.info("Evicted the velocity windows of {} idle bank accounts", evictedAccounts);
+        }
+    }
+
+    /**
+     * Checks an outgoing transfer against the limits of its sender bank account and, unless it is rejected, counts it.
+     * If the windows of the bank account are evicted in the meantime, they are removed from the map and the transfer is reserved again in new ones.
+     *
+     * @param senderBankAccountNumber the sender bank account number
+     * @param amount                  the amount of the transfer in grosze
+     * @param now                     the current time in milliseconds
+     * @param checkCount              whether the maximum counts are checked
+     * @return the decision about the transfer
+     */
+    private VelocityVerdict reserve(String senderBankAccountNumber, long amount, long now, boolean checkCount)
+    {
+        VelocityVerdict verdict;
+        do
+        {
+            AccountVelocity accountVelocity = accounts.computeIfAbsent(senderBankAccountNumber, key -> newAccountVelocity());
+            verdict = accountVelocity.reserve(amount, now, mode, checkCount);
+            if (verdict == null)
+            {
+                accounts.remove(senderBankAccountNumber, accountVelocity);
+            }
+        } while (verdict == null);
+        if (verdict != VelocityVerdict.ALLOWED)
+        {
+            log.warn("Transfer of {} from {} exceeds the velocity limits, {}", MinorUnits.toBigDecimal(amount), senderBankAccountNumber, verdict);
+        }
+        return verdict;
+    }
+
+    /**
+     * Returns the number of bank accounts whose windows are kept.
+     *
+     * @return the number of bank accounts with windows
+     */
+    public int getNumberOfAccounts()
+    {
+        return accounts.size();
+    }
+
+    /**
+     * Creates the empty windows of a bank account.
+     *
+     * @return the windows of the last minute in seconds, the last hour in minutes and the last day in hours
+     */
+    private AccountVelocity newAccountVelocity()
+    {
+        return new AccountVelocity(
+                new SlidingWindow(60, 1000L, minuteMaximumCount, minuteMaximumAmount),
+                new SlidingWindow(60, 60_000L, hourMaximumCount, hourMaximumAmount),
+                new SlidingWindow(24, 3_600_000L, dayMaximumCount, dayMaximumAmount));
+    }
+
+    /**
+     * The windows of the outgoing transfers of every bank account that has made a transfer in the last day, or since the last eviction.
+     */
+    private final ConcurrentHashMap<String, AccountVelocity> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * What to do with a transfer exceeding a limit.
+     */
+    private final VelocityMode mode;
+
+    /**
+     * Maximum number of transfers in a minute.
+     */
+    private final int minuteMaximumCount;
+
+    /**
+     * Maximum amount of money sent in a minute, in grosze.
+     */
+    private final long minuteMaximumAmount;
+
+    /**
+     * Maximum number of transfers in an hour.
+     */
+    private final int hourMaximumCount;
+
+    /**
+     * Maximum amount of money sent in an hour, in grosze.
+     */
+    private final long hourMaximumAmount;
+
+    /**
+     * Maximum number of transfers in a day.
+     */
+    private final int dayMaximumCount;
+
+    /**
+     * Maximum amount of money sent in a day, in grosze.
+     */
+    private final long dayMaximumAmount;
+}
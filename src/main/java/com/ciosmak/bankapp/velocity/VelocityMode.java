@@ -0,0 +1,21 @@
+package com.ciosmak.bankapp.velocity;
+
+/**
+ * The VelocityMode enum lists what the velocity guard does with a transfer exceeding one of the limits.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see VelocityGuard
+ */
+public enum VelocityMode
+{
+    /**
+     * The transfer is rejected.
+     */
+    REJECT,
+
+    /**
+     * The transfer is made and logged as suspicious.
+     */
+    FLAG
+}
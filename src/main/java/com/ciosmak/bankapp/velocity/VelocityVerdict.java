@@ -0,0 +1,26 @@
+package com.ciosmak.bankapp.velocity;
+
+/**
+ * The VelocityVerdict enum lists the decisions of the velocity guard about an outgoing transfer.
+ *
+ * @author Piotr Ciosmak
+ * @version 1.0
+ * @see VelocityGuard#reserve(String, long, long)
+ */
+public enum VelocityVerdict
+{
+    /**
+     * The transfer is within all the limits.
+     */
+    ALLOWED,
+
+    /**
+     * The transfer exceeds a limit, but the guard only flags such transfers, so it can be made.
+     */
+    FLAGGED,
+
+    /**
+     * The transfer exceeds a limit and must not be made.
+     */
+    REJECTED
+}
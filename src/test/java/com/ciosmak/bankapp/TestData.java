@@ -0,0 +1,98 @@
+package com.ciosmak.bankapp;
+
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.PaymentCard;
+import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.payment.card.status.PaymentCardStatus;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RequiredArgsConstructor
+@Component
+public class TestData
+{
+    public User createUser()
+    {
+        return userRepository.save(User.builder().email("user" + sequence.incrementAndGet() + "@test.pl").password("Test123_").build());
+    }
+
+    @Transactional
+    public BankAccount createBankAccount(User user, long balance)
+    {
+        return bankAccountRepository.save(bankAccountBuilder(user, balance, nextBankAccountNumber()).build());
+    }
+
+    @Transactional
+    public BankAccount createBankAccount(User user, long balance, PaymentCardStatus paymentCardStatus)
+    {
+        String bankAccountNumber = nextBankAccountNumber();
+        return bankAccountRepository.save(bankAccountBuilder(user, balance, bankAccountNumber).
+                paymentCard(PaymentCard.builder().
+                        firstName("Jan").
+                        lastName("Kowalski").
+                        expiryDate(LocalDate.now().plusYears(4)).
+                        status(paymentCardStatus).
+                        pin("1234").
+                        cardNumber(bankAccountNumber.substring(10)).
+                        verificationValue("123").
+                        paymentLimitPerDay(BigDecimal.valueOf(1000)).
+                        withdrawLimitPerDay(BigDecimal.valueOf(1000)).
+                        internetTransactionLimitPerDay(BigDecimal.valueOf(1000)).
+                        withdrawalFeeInPoland(BigDecimal.ZERO).
+                        foreignWithdrawalFee(BigDecimal.ZERO).
+                        maintenanceFee(BigDecimal.ZERO).
+                        minimumNumberOfTransactions(0).
+                        maxDebt(BigDecimal.ZERO).
+                        build()).
+                build());
+    }
+
+    public Transfer createDueTransfer(String senderBankAccountNumber, String receivingBankAccountNumber, String amountOfMoney)
+    {
+        LocalDateTime pastDate = LocalDateTime.now().minusHours(1);
+        return transferRepository.save(Transfer.builder().
+                title("Przelew").
+                amountOfMoney(new BigDecimal(amountOfMoney)).
+                senderBankAccountNumber(senderBankAccountNumber).
+                receivingBankAccountNumber(receivingBankAccountNumber).
+                executionDate(pastDate).
+                postingDate(pastDate).
+                build());
+    }
+
+    public String nextBankAccountNumber()
+    {
+        return String.format("%026d", sequence.incrementAndGet());
+    }
+
+    private BankAccount.BankAccountBuilder bankAccountBuilder(User user, long balance, String bankAccountNumber)
+    {
+        return BankAccount.builder().
+                balance(balance).
+                bankAccountNumber(bankAccountNumber).
+                internationalBankAccountNumber("PL" + bankAccountNumber).
+                name("Konto " + bankAccountNumber).
+                bankIdentificationCode("BANKPLPW").
+                isOpen(true).
+                maintenanceFee(BigDecimal.ZERO).
+                user(userRepository.getReferenceById(user.getId()));
+    }
+
+    private final UserRepository userRepository;
+
+    private final BankAccountRepository bankAccountRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final AtomicLong sequence = new AtomicLong();
+}
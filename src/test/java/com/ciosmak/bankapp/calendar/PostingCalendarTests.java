@@ -0,0 +1,106 @@
+package com.ciosmak.bankapp.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingCalendarTests
+{
+    @Test
+    void weekendsAreNotBusinessDays()
+    {
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2026, 3, 13)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 3, 14)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 3, 15)));
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2026, 3, 16)));
+    }
+
+    @Test
+    void fixedHolidaysAreNotBusinessDays()
+    {
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 1, 1)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 1, 6)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 5, 1)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2025, 5, 3)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2025, 8, 15)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2027, 11, 1)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 11, 11)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 12, 25)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2028, 12, 26)));
+    }
+
+    @Test
+    void easterMondayIsNotABusinessDay()
+    {
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2024, 4, 1)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2025, 4, 21)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 4, 6)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2038, 4, 26)));
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2026, 4, 7)));
+    }
+
+    @Test
+    void corpusChristiIsNotABusinessDay()
+    {
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2024, 5, 30)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2025, 6, 19)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 6, 4)));
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2026, 6, 5)));
+    }
+
+    @Test
+    void christmasEveIsNotABusinessDaySince2025()
+    {
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2024, 12, 24)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2025, 12, 24)));
+        assertFalse(postingCalendar.isBusinessDay(LocalDate.of(2026, 12, 24)));
+    }
+
+    @Test
+    void extraClosuresAreNotBusinessDays()
+    {
+        PostingCalendar closedPostingCalendar = new PostingCalendar(new String[]{"2026-11-10", " 2031-07-01 ", ""});
+        assertFalse(closedPostingCalendar.isBusinessDay(LocalDate.of(2026, 11, 10)));
+        assertFalse(closedPostingCalendar.isBusinessDay(LocalDate.of(2031, 7, 1)));
+        assertTrue(postingCalendar.isBusinessDay(LocalDate.of(2026, 11, 10)));
+    }
+
+    @Test
+    void businessDayIsFoundAcrossTheWordsOfTheBitset()
+    {
+        assertEquals(LocalDate.of(2026, 3, 5), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2026, 3, 5)));
+        assertEquals(LocalDate.of(2026, 3, 9), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2026, 3, 7)));
+        assertEquals(LocalDate.of(2026, 4, 7), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2026, 4, 4)));
+        assertEquals(LocalDate.of(2024, 12, 30), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2024, 12, 28)));
+        assertEquals(LocalDate.of(2024, 12, 31), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2024, 12, 31)));
+    }
+
+    @Test
+    void businessDayIsFoundInTheNextYear()
+    {
+        assertEquals(LocalDate.of(2023, 1, 2), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2022, 12, 31)));
+        assertEquals(LocalDate.of(2051, 1, 2), postingCalendar.getBusinessDayOnOrAfter(LocalDate.of(2050, 12, 31)));
+    }
+
+    @Test
+    void postingDateIsTheNextSession()
+    {
+        assertEquals(LocalDateTime.of(2026, 10, 19, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2026, 10, 19, 9, 30)));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 16, 0), postingCalendar.getPostingDate(LocalDateTime.of(2026, 10, 19, 12, 0)));
+        assertEquals(LocalDateTime.of(2026, 10, 20, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2026, 10, 19, 16, 0)));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2026, 10, 17, 10, 0)));
+    }
+
+    @Test
+    void postingDateRollsOverToTheNextYear()
+    {
+        assertEquals(LocalDateTime.of(2027, 1, 4, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2026, 12, 31, 16, 30)));
+        assertEquals(LocalDateTime.of(2051, 1, 2, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2050, 12, 30, 17, 0)));
+        assertEquals(LocalDateTime.of(2101, 1, 3, 12, 0), postingCalendar.getPostingDate(LocalDateTime.of(2100, 12, 31, 16, 0)));
+    }
+
+    private final PostingCalendar postingCalendar = new PostingCalendar(new String[0]);
+}
@@ -0,0 +1,79 @@
+package com.ciosmak.bankapp.money;
+
+import com.ciosmak.bankapp.money.converter.MinorUnitsConverter;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinorUnitsTests
+{
+    @Test
+    void toMinorUnitsConvertsExactly()
+    {
+        assertEquals(12345L, MinorUnits.toMinorUnits(new BigDecimal("123.45")));
+        assertEquals(12340L, MinorUnits.toMinorUnits(new BigDecimal("123.4")));
+        assertEquals(12300L, MinorUnits.toMinorUnits(new BigDecimal("123")));
+        assertEquals(1L, MinorUnits.toMinorUnits(new BigDecimal("0.01")));
+        assertEquals(-1050L, MinorUnits.toMinorUnits(new BigDecimal("-10.50")));
+        assertEquals(0L, MinorUnits.toMinorUnits(BigDecimal.ZERO));
+    }
+
+    @Test
+    void toMinorUnitsAcceptsTrailingZerosBeyondTwoDecimalPlaces()
+    {
+        assertEquals(12345L, MinorUnits.toMinorUnits(new BigDecimal("123.4500")));
+    }
+
+    @Test
+    void toMinorUnitsRejectsMoreThanTwoDecimalPlaces()
+    {
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinorUnits(new BigDecimal("0.001")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinorUnits(new BigDecimal("123.456")));
+    }
+
+    @Test
+    void toMinorUnitsRejectsOverflow()
+    {
+        BigDecimal largest = BigDecimal.valueOf(Long.MAX_VALUE, MinorUnits.SCALE);
+        assertEquals(Long.MAX_VALUE, MinorUnits.toMinorUnits(largest));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinorUnits(largest.add(new BigDecimal("0.01"))));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinorUnits(new BigDecimal("1E+20")));
+    }
+
+    @Test
+    void toBigDecimalHasTwoDecimalPlaces()
+    {
+        assertEquals(new BigDecimal("123.45"), MinorUnits.toBigDecimal(12345L));
+        assertEquals(new BigDecimal("0.00"), MinorUnits.toBigDecimal(0L));
+        assertEquals(new BigDecimal("-0.05"), MinorUnits.toBigDecimal(-5L));
+    }
+
+    @Test
+    void conversionRoundTrips()
+    {
+        for (long minorUnits : new long[]{0L, 1L, 99L, 100L, 123456789L, -42L, Long.MAX_VALUE, Long.MIN_VALUE})
+        {
+            assertEquals(minorUnits, MinorUnits.toMinorUnits(MinorUnits.toBigDecimal(minorUnits)));
+        }
+    }
+
+    @Test
+    void fitsLeavesRoomForSums()
+    {
+        assertTrue(MinorUnits.fits(new BigDecimal("999999999999999.99")));
+        assertFalse(MinorUnits.fits(new BigDecimal("1000000000000000.00")));
+        assertTrue(MinorUnits.fits(new BigDecimal("0.001")));
+    }
+
+    @Test
+    void converterMapsGroszeToTheDecimalColumn()
+    {
+        MinorUnitsConverter minorUnitsConverter = new MinorUnitsConverter();
+        assertEquals(new BigDecimal("10.05"), minorUnitsConverter.convertToDatabaseColumn(1005L));
+        assertEquals(1005L, minorUnitsConverter.convertToEntityAttribute(new BigDecimal("10.05")));
+        assertNull(minorUnitsConverter.convertToDatabaseColumn(null));
+        assertNull(minorUnitsConverter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,148 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.dashboard.DashboardSummary;
+import com.ciosmak.bankapp.dashboard.UserDataChangedEvent;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.payment.card.status.Activated;
+import com.ciosmak.bankapp.payment.card.status.BlockedPermanently;
+import com.ciosmak.bankapp.payment.card.status.NotActivated;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import com.ciosmak.bankapp.user.id.UserId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class DashboardTests
+{
+    @BeforeEach
+    void createBankAccounts()
+    {
+        user = testData.createUser();
+        firstBankAccount = testData.createBankAccount(user, 10_000L, new Activated());
+        secondBankAccount = testData.createBankAccount(user, 2_550L, new BlockedPermanently());
+        testData.createBankAccount(user, 0L, new NotActivated());
+        BankAccount closedBankAccount = testData.createBankAccount(user, 5_000L);
+        closedBankAccount.setOpen(false);
+        bankAccountRepository.save(closedBankAccount);
+    }
+
+    @Test
+    void summaryAddsUpTheOpenBankAccountsTheirCardsAndTheTotalsOfTheMonth()
+    {
+        transferService.submit(command(firstBankAccount, "1.00"));
+        testData.createDueTransfer(testData.nextBankAccountNumber(), secondBankAccount.getBankAccountNumber(), "4.00");
+        settlementService.autoMakeTransfers();
+
+        DashboardSummary dashboardSummary = historyService.getDashboardSummary(getUserId(user));
+
+        assertEquals(0, new BigDecimal("128.50").compareTo(dashboardSummary.getBalance()));
+        assertEquals(0, new BigDecimal("1.00").compareTo(dashboardSummary.getExpenses()));
+        assertEquals(0, new BigDecimal("4.00").compareTo(dashboardSummary.getIncome()));
+        assertEquals(3L, dashboardSummary.getNumberOfOpenBankAccounts());
+        assertEquals(2L, dashboardSummary.getNumberOfActivePaymentCards());
+    }
+
+    @Test
+    void summaryOfUserWithoutBankAccountsIsEmpty()
+    {
+        DashboardSummary dashboardSummary = historyService.getDashboardSummary(getUserId(testData.createUser()));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(dashboardSummary.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(dashboardSummary.getExpenses()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(dashboardSummary.getIncome()));
+        assertEquals(0L, dashboardSummary.getNumberOfOpenBankAccounts());
+        assertEquals(0L, dashboardSummary.getNumberOfActivePaymentCards());
+    }
+
+    @Test
+    void summaryIsRememberedUntilATransferOfTheUserIsMade()
+    {
+        DashboardSummary dashboardSummary = historyService.getDashboardSummary(getUserId(user));
+
+        assertSame(dashboardSummary, historyService.getDashboardSummary(getUserId(user)));
+        transferService.submit(command(firstBankAccount, "1.00"));
+        DashboardSummary changedDashboardSummary = historyService.getDashboardSummary(getUserId(user));
+        assertNotSame(dashboardSummary, changedDashboardSummary);
+        assertEquals(0, new BigDecimal("124.50").compareTo(changedDashboardSummary.getBalance()));
+        assertEquals(0, new BigDecimal("1.00").compareTo(changedDashboardSummary.getExpenses()));
+    }
+
+    @Test
+    void summaryIsInvalidatedOnlyAfterTheChangeIsCommitted()
+    {
+        DashboardSummary dashboardSummary = historyService.getDashboardSummary(getUserId(user));
+
+        transactionTemplate.executeWithoutResult(status ->
+        {
+            applicationEventPublisher.publishEvent(new UserDataChangedEvent(user.getId()));
+            assertSame(dashboardSummary, historyService.getDashboardSummary(getUserId(user)));
+            status.setRollbackOnly();
+        });
+        assertSame(dashboardSummary, historyService.getDashboardSummary(getUserId(user)));
+
+        transactionTemplate.executeWithoutResult(status ->
+        {
+            applicationEventPublisher.publishEvent(new UserDataChangedEvent(user.getId()));
+            assertSame(dashboardSummary, historyService.getDashboardSummary(getUserId(user)));
+        });
+        assertNotSame(dashboardSummary, historyService.getDashboardSummary(getUserId(user)));
+    }
+
+    private UserId getUserId(User user)
+    {
+        UserId userId = UserId.getInstance(user.getId());
+        userId.setId(user.getId());
+        return userId;
+    }
+
+    private TransferCommand command(BankAccount senderBankAccount, String amountOfMoney)
+    {
+        return TransferCommand.builder().
+                senderBankAccountNumber(senderBankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(testData.nextBankAccountNumber()).
+                amountOfMoney(new BigDecimal(amountOfMoney)).
+                title("Przelew").
+                build();
+    }
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestData testData;
+
+    private User user;
+
+    private BankAccount firstBankAccount;
+
+    private BankAccount secondBankAccount;
+}
@@ -0,0 +1,279 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.history.ExportFormat;
+import com.ciosmak.bankapp.history.HistoryCursor;
+import com.ciosmak.bankapp.history.HistoryEntry;
+import com.ciosmak.bankapp.history.HistoryPage;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class HistoryTests
+{
+    @BeforeEach
+    void createBankAccounts()
+    {
+        user = testData.createUser();
+        firstBankAccount = testData.createBankAccount(user, 10_000L);
+        secondBankAccount = testData.createBankAccount(user, 10_000L);
+    }
+
+    @Test
+    void pagesCoverTheWholeHistoryOnceWhenManyTransfersHaveTheSamePostingDate()
+    {
+        LocalDateTime postingDate = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        for (int i = 0; i < 5; ++i)
+        {
+            createTransfer(firstBankAccount, testData.nextBankAccountNumber(), postingDate);
+        }
+        for (int i = 0; i < 3; ++i)
+        {
+            createTransfer(null, firstBankAccount.getBankAccountNumber(), postingDate);
+        }
+        for (int i = 0; i < 2; ++i)
+        {
+            createTransfer(firstBankAccount, secondBankAccount.getBankAccountNumber(), postingDate);
+            createTransfer(secondBankAccount, testData.nextBankAccountNumber(), postingDate);
+            createTransfer(firstBankAccount, testData.nextBankAccountNumber(), postingDate.minusDays(1));
+        }
+        List<BankAccount> bankAccounts = List.of(firstBankAccount, secondBankAccount);
+
+        List<String> wholeHistory = getKeys(historyService.getHistory(bankAccounts, null, 100).getEntries());
+
+        assertEquals(16, wholeHistory.size());
+        assertEquals(16, new HashSet<>(wholeHistory).size());
+        for (int pageSize = 1; pageSize <= 4; ++pageSize)
+        {
+            assertEquals(wholeHistory, readPageByPage(bankAccounts, pageSize), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void lastPageHasNoCursor()
+    {
+        LocalDateTime postingDate = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        for (int i = 0; i < 4; ++i)
+        {
+            createTransfer(firstBankAccount, testData.nextBankAccountNumber(), postingDate);
+        }
+
+        HistoryPage firstPage = historyService.getHistory(List.of(firstBankAccount), null, 2);
+        HistoryPage secondPage = historyService.getHistory(List.of(firstBankAccount), firstPage.getNextCursor(), 2);
+
+        assertTrue(firstPage.hasNextPage());
+        assertEquals(2, secondPage.getEntries().size());
+        assertFalse(secondPage.hasNextPage());
+        assertTrue(historyService.getHistory(List.of(secondBankAccount), null, 2).getEntries().isEmpty());
+    }
+
+    @Test
+    void everyEntryShowsTheBalanceOfItsBankAccountRightAfterIt()
+    {
+        transferService.submit(command(firstBankAccount, testData.nextBankAccountNumber(), "1.00"));
+        transferService.submit(command(firstBankAccount, secondBankAccount.getBankAccountNumber(), "3.00"));
+        testData.createDueTransfer(testData.nextBankAccountNumber(), firstBankAccount.getBankAccountNumber(), "5.00");
+        testData.createDueTransfer(testData.nextBankAccountNumber(), secondBankAccount.getBankAccountNumber(), "2.00");
+        settlementService.autoMakeTransfers();
+        List<BankAccount> bankAccounts = bankAccountRepository.findByUserId(user.getId());
+
+        List<HistoryEntry> historyEntries = historyService.getHistory(bankAccounts, null, 100).getEntries();
+
+        assertEquals(List.of(new BigDecimal("101.00"), new BigDecimal("104.00"), new BigDecimal("105.00")), getBalances(historyEntries, firstBankAccount));
+        assertEquals(List.of(new BigDecimal("102.00"), new BigDecimal("102.00")), getBalances(historyEntries, secondBankAccount));
+        for (int pageSize = 1; pageSize <= 3; ++pageSize)
+        {
+            List<HistoryEntry> pagedHistoryEntries = new ArrayList<>();
+            HistoryCursor cursor = null;
+            do
+            {
+                HistoryPage historyPage = historyService.getHistory(bankAccounts, cursor, pageSize);
+                pagedHistoryEntries.addAll(historyPage.getEntries());
+                cursor = historyPage.getNextCursor();
+            }
+            while (cursor != null);
+            assertEquals(historyEntries.stream().map(HistoryEntry::getBalance).toList(), pagedHistoryEntries.stream().map(HistoryEntry::getBalance).toList(), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void historyIsExportedToCsvNewestEntriesFirst() throws IOException
+    {
+        LocalDateTime postingDate = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        Transfer olderTransfer = createTransfer(secondBankAccount, testData.nextBankAccountNumber(), postingDate.minusDays(1), "Starszy", new BigDecimal("0.50"));
+        Transfer ownTransfer = createTransfer(firstBankAccount, secondBankAccount.getBankAccountNumber(), postingDate, "Między rachunkami", new BigDecimal("3.00"));
+        Transfer sentTransfer = createTransfer(firstBankAccount, testData.nextBankAccountNumber(), postingDate, "Czynsz; \"marzec\"", new BigDecimal("12.34"));
+        createTransfer(testData.createBankAccount(testData.createUser(), 10_000L), testData.nextBankAccountNumber(), postingDate, "Cudzy", BigDecimal.ONE);
+        Path file = directory.resolve("historia.csv");
+
+        long numberOfEntries = historyService.exportHistory(file, user.getId(), ExportFormat.CSV);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(4, numberOfEntries);
+        assertEquals(5, lines.size());
+        assertEquals("transferId;date;amountOfMoney;title;bankAccountNumber;bankAccountName;senderBankAccountNumber;receivingBankAccountNumber;outgoing", lines.get(0));
+        assertEquals(sentTransfer.getId() + ";" + postingDate + ";-12.34;\"Czynsz; \"\"marzec\"\"\";" + firstBankAccount.getBankAccountNumber() + ";" + firstBankAccount.getName() + ";" + firstBankAccount.getBankAccountNumber() + ";" + sentTransfer.getReceivingBankAccountNumber() + ";true", lines.get(1));
+        assertTrue(lines.get(2).startsWith(ownTransfer.getId() + ";" + postingDate + ";-3.00;Między rachunkami;" + firstBankAccount.getBankAccountNumber() + ";"));
+        assertTrue(lines.get(3).startsWith(ownTransfer.getId() + ";" + postingDate + ";3.00;Między rachunkami;" + secondBankAccount.getBankAccountNumber() + ";"));
+        assertTrue(lines.get(4).startsWith(olderTransfer.getId() + ";"));
+    }
+
+    @Test
+    void longHistoryIsExportedToJsonInOrder() throws IOException
+    {
+        LocalDateTime postingDate = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < 1_200; ++i)
+        {
+            transfers.add(Transfer.builder().
+                    title("Przelew \\ " + i).
+                    amountOfMoney(BigDecimal.ONE).
+                    senderBankAccountNumber(firstBankAccount.getBankAccountNumber()).
+                    senderBankAccount(firstBankAccount).
+                    receivingBankAccountNumber(testData.nextBankAccountNumber()).
+                    executionDate(postingDate.minusMinutes(i % 7)).
+                    postingDate(postingDate.minusMinutes(i % 7)).
+                    done(true).
+                    build());
+        }
+        transferRepository.saveAll(transfers);
+        Path file = directory.resolve("historia.json");
+
+        long numberOfEntries = historyService.exportHistory(file, user.getId(), ExportFormat.JSON);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1_200, numberOfEntries);
+        assertEquals(1_202, lines.size());
+        assertEquals("[", lines.get(0));
+        assertEquals("]", lines.get(1_201));
+        assertTrue(lines.get(1).startsWith("{\"transferId\":"));
+        assertTrue(lines.get(1).contains("\"title\":\"Przelew \\\\ "));
+        assertTrue(lines.get(1).endsWith("\"outgoing\":true},"));
+        assertTrue(lines.get(1_200).endsWith("}"));
+        List<Long> exportedTransferIds = lines.subList(1, 1_201).stream().map(line -> Long.valueOf(line.substring(line.indexOf(':') + 1, line.indexOf(',')))).toList();
+        List<Long> expectedTransferIds = transfers.stream().
+                sorted(Comparator.comparing(Transfer::getPostingDate).thenComparing(Transfer::getId).reversed()).
+                map(Transfer::getId).
+                toList();
+        assertEquals(expectedTransferIds, exportedTransferIds);
+    }
+
+    @Test
+    void emptyHistoryIsExportedAsAnEmptyJsonArray() throws IOException
+    {
+        Path file = directory.resolve("historia.json");
+
+        assertEquals(0, historyService.exportHistory(file, user.getId(), ExportFormat.JSON));
+        assertEquals(List.of("[]"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    private List<BigDecimal> getBalances(List<HistoryEntry> historyEntries, BankAccount bankAccount)
+    {
+        return historyEntries.stream().
+                filter(historyEntry -> historyEntry.getBankAccount().getBankAccountNumber().equals(bankAccount.getBankAccountNumber())).
+                map(HistoryEntry::getBalance).
+                toList();
+    }
+
+    private TransferCommand command(BankAccount senderBankAccount, String receivingBankAccountNumber, String amountOfMoney)
+    {
+        return TransferCommand.builder().
+                senderBankAccountNumber(senderBankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(receivingBankAccountNumber).
+                amountOfMoney(new BigDecimal(amountOfMoney)).
+                title("Przelew").
+                build();
+    }
+
+    private List<String> readPageByPage(List<BankAccount> bankAccounts, int pageSize)
+    {
+        List<String> keys = new ArrayList<>();
+        HistoryCursor cursor = null;
+        do
+        {
+            HistoryPage historyPage = historyService.getHistory(bankAccounts, cursor, pageSize);
+            assertTrue(historyPage.getEntries().size() <= pageSize);
+            keys.addAll(getKeys(historyPage.getEntries()));
+            cursor = historyPage.getNextCursor();
+        }
+        while (cursor != null);
+        return keys;
+    }
+
+    private List<String> getKeys(List<HistoryEntry> historyEntries)
+    {
+        return historyEntries.stream().map(historyEntry -> historyEntry.getTransfer().getId() + ":" + historyEntry.isOutgoing() + ":" + historyEntry.getBankAccount().getBankAccountNumber()).toList();
+    }
+
+    private Transfer createTransfer(BankAccount senderBankAccount, String receivingBankAccountNumber, LocalDateTime postingDate)
+    {
+        return createTransfer(senderBankAccount, receivingBankAccountNumber, postingDate, "Przelew", BigDecimal.ONE);
+    }
+
+    private Transfer createTransfer(BankAccount senderBankAccount, String receivingBankAccountNumber, LocalDateTime postingDate, String title, BigDecimal amountOfMoney)
+    {
+        return transferRepository.save(Transfer.builder().
+                title(title).
+                amountOfMoney(amountOfMoney).
+                senderBankAccountNumber(senderBankAccount == null ? testData.nextBankAccountNumber() : senderBankAccount.getBankAccountNumber()).
+                senderBankAccount(senderBankAccount).
+                receivingBankAccountNumber(receivingBankAccountNumber).
+                executionDate(postingDate).
+                postingDate(postingDate).
+                done(true).
+                build());
+    }
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @TempDir
+    private Path directory;
+
+    private User user;
+
+    private BankAccount firstBankAccount;
+
+    private BankAccount secondBankAccount;
+}
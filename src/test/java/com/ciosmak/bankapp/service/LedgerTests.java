@@ -0,0 +1,113 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.entity.BalanceSnapshot;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.ledger.Reconciliation;
+import com.ciosmak.bankapp.repository.BalanceSnapshotRepository;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import com.ciosmak.bankapp.transfer.result.TransferStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class LedgerTests
+{
+    @BeforeEach
+    void openBankAccount()
+    {
+        beforeOpening = LocalDateTime.now();
+        bankAccount = testData.createBankAccount(testData.createUser(), 10_000L);
+        ledgerService.open(bankAccount);
+    }
+
+    @Test
+    void ledgerMatchesTheBalanceAfterTransfersAndSettlement()
+    {
+        assertEquals(TransferStatus.MADE, transferService.submit(command("12.34")).getStatus());
+        testData.createDueTransfer(testData.nextBankAccountNumber(), bankAccount.getBankAccountNumber(), "5.00");
+        testData.createDueTransfer(testData.nextBankAccountNumber(), bankAccount.getBankAccountNumber(), "0.01");
+        settlementService.autoMakeTransfers();
+
+        Reconciliation reconciliation = ledgerService.reconcile(bankAccount.getBankAccountNumber());
+
+        assertTrue(reconciliation.isMatching());
+        assertEquals(0, new BigDecimal("92.67").compareTo(reconciliation.getBalance()));
+    }
+
+    @Test
+    void balanceAtAGivenTimeIsComputedFromTheLastSnapshotAndTheLaterEntries()
+    {
+        transferService.submit(command("1.00"));
+        LocalDateTime afterFirstTransfer = LocalDateTime.now();
+        ledgerService.takeSnapshots();
+        transferService.submit(command("2.50"));
+        LocalDateTime afterSecondTransfer = LocalDateTime.now();
+
+        assertEquals(Optional.empty(), ledgerService.getBalanceAt(bankAccount.getBankAccountNumber(), beforeOpening));
+        assertEquals(0, new BigDecimal("99.00").compareTo(ledgerService.getBalanceAt(bankAccount.getBankAccountNumber(), afterFirstTransfer).orElseThrow()));
+        assertEquals(0, new BigDecimal("96.50").compareTo(ledgerService.getBalanceAt(bankAccount.getBankAccountNumber(), afterSecondTransfer).orElseThrow()));
+        assertTrue(ledgerService.reconcile(bankAccount.getBankAccountNumber()).isMatching());
+    }
+
+    @Test
+    void snapshotIsTakenOnlyWhenThereAreNewEntries()
+    {
+        ledgerService.takeSnapshots();
+        ledgerService.takeSnapshots();
+        transferService.submit(command("1.00"));
+        ledgerService.takeSnapshots();
+        ledgerService.takeSnapshots();
+
+        List<BalanceSnapshot> balanceSnapshots = balanceSnapshotRepository.findAll().stream().
+                filter(balanceSnapshot -> balanceSnapshot.getBankAccountNumber().equals(bankAccount.getBankAccountNumber())).
+                sorted(Comparator.comparing(BalanceSnapshot::getId)).
+                toList();
+        assertEquals(2, balanceSnapshots.size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceSnapshots.get(0).getBalance()));
+        assertEquals(0, new BigDecimal("99.00").compareTo(balanceSnapshots.get(1).getBalance()));
+        assertEquals(1L, balanceSnapshots.get(1).getLastSequenceNumber() - balanceSnapshots.get(0).getLastSequenceNumber());
+    }
+
+    private TransferCommand command(String amountOfMoney)
+    {
+        return TransferCommand.builder().
+                senderBankAccountNumber(bankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(testData.nextBankAccountNumber()).
+                amountOfMoney(new BigDecimal(amountOfMoney)).
+                title("Przelew").
+                build();
+    }
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private TestData testData;
+
+    private LocalDateTime beforeOpening;
+
+    private BankAccount bankAccount;
+}
@@ -0,0 +1,117 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.concurrency.OptimisticRetryExecutor;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class MonthlyRollupTests
+{
+    @BeforeEach
+    void createBankAccounts()
+    {
+        user = testData.createUser();
+        firstBankAccount = testData.createBankAccount(user, 10_000L);
+        secondBankAccount = testData.createBankAccount(user, 10_000L);
+        otherUserBankAccount = testData.createBankAccount(testData.createUser(), 10_000L);
+    }
+
+    @Test
+    void totalsOfAllBankAccountsOfTheUserAreSummed()
+    {
+        YearMonth month = YearMonth.now();
+        transferService.submit(command(firstBankAccount, testData.nextBankAccountNumber(), "1.25"));
+        transferService.submit(command(secondBankAccount, testData.nextBankAccountNumber(), "2.50"));
+        transferService.submit(command(otherUserBankAccount, firstBankAccount.getBankAccountNumber(), "7.00"));
+        testData.createDueTransfer(otherUserBankAccount.getBankAccountNumber(), firstBankAccount.getBankAccountNumber(), "4.00");
+        testData.createDueTransfer(otherUserBankAccount.getBankAccountNumber(), secondBankAccount.getBankAccountNumber(), "0.75");
+        settlementService.autoMakeTransfers();
+
+        assertEquals(0, new BigDecimal("3.75").compareTo(monthlyRollupService.getDebitsOfUser(user.getId(), month)));
+        assertEquals(0, new BigDecimal("4.75").compareTo(monthlyRollupService.getCreditsOfUser(user.getId(), month)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(monthlyRollupService.getDebitsOfUser(user.getId(), month.minusMonths(1))));
+    }
+
+    @Test
+    void firstBookingsOfTheMonthRacingToInsertTheTotalsAreBothCounted() throws Exception
+    {
+        CountDownLatch bothBooked = new CountDownLatch(2);
+        Callable<Boolean> booking = () -> optimisticRetryExecutor.execute(() ->
+        {
+            monthlyRollupService.addCredit(firstBankAccount.getBankAccountNumber(), LocalDateTime.now(), BigDecimal.ONE);
+            bothBooked.countDown();
+            try
+            {
+                return bothBooked.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try
+        {
+            for (Future<Boolean> result : executorService.invokeAll(List.of(booking, booking)))
+            {
+                assertTrue(result.get());
+            }
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+
+        assertEquals(0, new BigDecimal("2.00").compareTo(monthlyRollupService.getCreditsOfUser(user.getId(), YearMonth.now())));
+    }
+
+    private TransferCommand command(BankAccount senderBankAccount, String receivingBankAccountNumber, String amountOfMoney)
+    {
+        return TransferCommand.builder().
+                senderBankAccountNumber(senderBankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(receivingBankAccountNumber).
+                amountOfMoney(new BigDecimal(amountOfMoney)).
+                title("Przelew").
+                build();
+    }
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private TestData testData;
+
+    private User user;
+
+    private BankAccount firstBankAccount;
+
+    private BankAccount secondBankAccount;
+
+    private BankAccount otherUserBankAccount;
+}
@@ -0,0 +1,118 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.Transfer;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.LedgerEntryRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import lombok.Value;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementWorkersTests
+{
+    @Test
+    void parallelSettlementGivesTheSameResultAsASingleWorker()
+    {
+        SettlementResult singleWorkerResult = settle(1);
+        SettlementResult parallelResult = settle(4);
+
+        assertEquals(DUE_TRANSFERS, singleWorkerResult.getSettledTransfers());
+        assertEquals(DUE_TRANSFERS, parallelResult.getSettledTransfers());
+        assertEquals(singleWorkerResult.getBalances(), parallelResult.getBalances());
+        assertFalse(singleWorkerResult.getLedgerEntries().isEmpty());
+        assertEquals(singleWorkerResult.getLedgerEntries(), parallelResult.getLedgerEntries());
+        assertEquals(singleWorkerResult.getDoneFlags(), parallelResult.getDoneFlags());
+        assertEquals(DUE_TRANSFERS, singleWorkerResult.getDoneFlags().values().stream().filter(done -> done).count());
+    }
+
+    private SettlementResult settle(int workers)
+    {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankAppTestConfiguration.class).
+                profiles("test").
+                properties("bank.settlement.workers=" + workers,
+                        "bank.settlement.chunk-size=1000",
+                        "bank.settlement.catch-up-initial-delay=3600000",
+                        "bank.ledger.snapshot-initial-delay=3600000").
+                run())
+        {
+            createTransfers(context.getBean(TestData.class), context.getBean(TransferRepository.class));
+            int settledTransfers = context.getBean(SettlementService.class).autoMakeTransfers().getSettledTransfers();
+
+            TreeMap<String, Long> balances = new TreeMap<>();
+            for (var bankAccount : context.getBean(BankAccountRepository.class).findAll())
+            {
+                balances.put(bankAccount.getBankAccountNumber(), bankAccount.getBalance());
+            }
+            TreeSet<String> ledgerEntries = new TreeSet<>();
+            for (var ledgerEntry : context.getBean(LedgerEntryRepository.class).findAll())
+            {
+                ledgerEntries.add(ledgerEntry.getBankAccountNumber() + ":" + ledgerEntry.getSequenceNumber() + ":" + ledgerEntry.getType() + ":" + ledgerEntry.getAmountOfMoney());
+            }
+            TreeMap<String, Boolean> doneFlags = new TreeMap<>();
+            for (var transfer : context.getBean(TransferRepository.class).findAll())
+            {
+                doneFlags.put(transfer.getTitle(), transfer.isDone());
+            }
+            return new SettlementResult(settledTransfers, balances, ledgerEntries, doneFlags);
+        }
+    }
+
+    private void createTransfers(TestData testData, TransferRepository transferRepository)
+    {
+        List<String> bankAccountNumbers = new ArrayList<>();
+        for (int i = 0; i < 3; ++i)
+        {
+            User user = testData.createUser();
+            for (int j = 0; j < 4; ++j)
+            {
+                BankAccount bankAccount = testData.createBankAccount(user, 100_000L);
+                bankAccountNumbers.add(bankAccount.getBankAccountNumber());
+            }
+        }
+        bankAccountNumbers.add(testData.nextBankAccountNumber());
+
+        Random random = new Random(4);
+        LocalDateTime pastDate = LocalDateTime.now().minusDays(1);
+        LocalDateTime futureDate = LocalDateTime.now().plusDays(1);
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < DUE_TRANSFERS + NOT_DUE_TRANSFERS; ++i)
+        {
+            transfers.add(Transfer.builder().
+                    title(String.format("Przelew %03d", i)).
+                    amountOfMoney(BigDecimal.valueOf(1 + random.nextInt(10_000), 2)).
+                    senderBankAccountNumber(bankAccountNumbers.get(random.nextInt(bankAccountNumbers.size()))).
+                    receivingBankAccountNumber(bankAccountNumbers.get(random.nextInt(bankAccountNumbers.size()))).
+                    executionDate(pastDate).
+                    postingDate(i < DUE_TRANSFERS ? pastDate.plusSeconds(random.nextInt(3)) : futureDate).
+                    build());
+        }
+        transferRepository.saveAll(transfers);
+    }
+
+    @Value
+    private static class SettlementResult
+    {
+        int settledTransfers;
+
+        Map<String, Long> balances;
+
+        Set<String> ledgerEntries;
+
+        Map<String, Boolean> doneFlags;
+    }
+
+    private static final int DUE_TRANSFERS = 300;
+
+    private static final int NOT_DUE_TRANSFERS = 20;
+}
@@ -0,0 +1,143 @@
+package com.ciosmak.bankapp.service;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.transfer.command.TransferCommand;
+import com.ciosmak.bankapp.transfer.result.TransferResult;
+import com.ciosmak.bankapp.transfer.result.TransferStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class TransferIdempotencyTests
+{
+    @BeforeEach
+    void createBankAccounts()
+    {
+        owner = testData.createUser();
+        ownerBankAccount = testData.createBankAccount(owner, 10_000L);
+        ownerOtherBankAccount = testData.createBankAccount(owner, 10_000L);
+        otherUser = testData.createUser();
+        otherUserBankAccount = testData.createBankAccount(otherUser, 10_000L);
+        receivingBankAccountNumber = testData.nextBankAccountNumber();
+        idempotencyKey = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void repeatedSubmissionOfTheSameUserReturnsTheOriginalTransfer()
+    {
+        TransferResult madeTransfer = transferService.submit(command(owner, ownerBankAccount));
+        TransferResult repeatedTransfer = transferService.submit(command(owner, ownerBankAccount));
+
+        assertEquals(TransferStatus.MADE, madeTransfer.getStatus());
+        assertEquals(TransferStatus.DUPLICATE, repeatedTransfer.getStatus());
+        assertEquals(madeTransfer.getTransferId(), repeatedTransfer.getTransferId());
+        assertEquals(9_900L, getBalance(ownerBankAccount));
+    }
+
+    @Test
+    void keyOfAnotherUserIsRejectedWithoutRevealingTheTransfer()
+    {
+        transferService.submit(command(owner, ownerBankAccount));
+
+        TransferResult otherUserTransfer = transferService.submit(command(otherUser, otherUserBankAccount));
+
+        assertEquals(TransferStatus.IDEMPOTENCY_KEY_CONFLICT, otherUserTransfer.getStatus());
+        assertNull(otherUserTransfer.getTransferId());
+        assertEquals(10_000L, getBalance(otherUserBankAccount));
+        assertEquals(1, transferRepository.findByReceivingBankAccountNumber(receivingBankAccountNumber).size());
+    }
+
+    @Test
+    void keyOfAnotherUserIsRejectedEvenWithTheSenderBankAccountOfTheOwner()
+    {
+        transferService.submit(command(owner, ownerBankAccount));
+
+        TransferResult otherUserTransfer = transferService.submit(command(otherUser, ownerBankAccount));
+
+        assertEquals(TransferStatus.IDEMPOTENCY_KEY_CONFLICT, otherUserTransfer.getStatus());
+        assertNull(otherUserTransfer.getTransferId());
+    }
+
+    @Test
+    void keyUsedFromAnotherSenderBankAccountIsRejected()
+    {
+        transferService.submit(command(owner, ownerBankAccount));
+
+        TransferResult otherBankAccountTransfer = transferService.submit(command(owner, ownerOtherBankAccount));
+
+        assertEquals(TransferStatus.IDEMPOTENCY_KEY_CONFLICT, otherBankAccountTransfer.getStatus());
+        assertEquals(10_000L, getBalance(ownerOtherBankAccount));
+    }
+
+    @Test
+    void keyOfAnotherUserIsRejectedInABatch()
+    {
+        TransferResult madeTransfer = transferService.submit(command(owner, ownerBankAccount));
+
+        List<TransferResult> transferResults = transferService.submitBatch(List.of(command(otherUser, otherUserBankAccount), command(owner, ownerBankAccount)));
+
+        assertEquals(TransferStatus.IDEMPOTENCY_KEY_CONFLICT, transferResults.get(0).getStatus());
+        assertNull(transferResults.get(0).getTransferId());
+        assertEquals(TransferStatus.DUPLICATE, transferResults.get(1).getStatus());
+        assertEquals(madeTransfer.getTransferId(), transferResults.get(1).getTransferId());
+        assertEquals(10_000L, getBalance(otherUserBankAccount));
+    }
+
+    private TransferCommand command(User user, BankAccount senderBankAccount)
+    {
+        return TransferCommand.builder().
+                userId(user.getId()).
+                senderBankAccountNumber(senderBankAccount.getBankAccountNumber()).
+                receivingBankAccountNumber(receivingBankAccountNumber).
+                amountOfMoney(new BigDecimal("1.00")).
+                title("Przelew").
+                idempotencyKey(idempotencyKey).
+                build();
+    }
+
+    private long getBalance(BankAccount bankAccount)
+    {
+        return bankAccountRepository.findByBankAccountNumber(bankAccount.getBankAccountNumber()).orElseThrow().getBalance();
+    }
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestData testData;
+
+    private User owner;
+
+    private BankAccount ownerBankAccount;
+
+    private BankAccount ownerOtherBankAccount;
+
+    private User otherUser;
+
+    private BankAccount otherUserBankAccount;
+
+    private String receivingBankAccountNumber;
+
+    private String idempotencyKey;
+}
@@ -0,0 +1,116 @@
+package com.ciosmak.bankapp.transfer.importer;
+
+import com.ciosmak.bankapp.BankAppTestConfiguration;
+import com.ciosmak.bankapp.TestData;
+import com.ciosmak.bankapp.entity.BankAccount;
+import com.ciosmak.bankapp.entity.User;
+import com.ciosmak.bankapp.repository.BankAccountRepository;
+import com.ciosmak.bankapp.repository.TransferRepository;
+import com.ciosmak.bankapp.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = BankAppTestConfiguration.class)
+@ActiveProfiles("test")
+class TransferImportTests
+{
+    @BeforeEach
+    void createBankAccounts()
+    {
+        user = testData.createUser();
+        senderBankAccount = testData.createBankAccount(user, 10_000L);
+        otherUserBankAccount = testData.createBankAccount(testData.createUser(), 10_000L);
+        receivingBankAccountNumber = testData.nextBankAccountNumber();
+    }
+
+    @Test
+    void invalidLinesAreWrittenToTheRejectsFileWithTheirReasons() throws IOException
+    {
+        Path file = writeFile("przelewy.csv",
+                senderBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";1,25;Czynsz",
+                "niepoprawna linia",
+                "",
+                senderBankAccount.getBankAccountNumber() + ";123;1;Zły numer",
+                senderBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";500;Za dużo",
+                otherUserBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";1;Cudze konto",
+                senderBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";2.50;Prąd");
+
+        ImportReport importReport = transferService.importTransfers(file, user.getId());
+
+        assertEquals(6, importReport.getLines());
+        assertEquals(2, importReport.getMadeTransfers());
+        assertEquals(0, importReport.getDuplicates());
+        assertEquals(4, importReport.getRejects());
+        assertEquals(List.of("2;INVALID_FORMAT;niepoprawna linia",
+                        "4;INVALID_ACCOUNT_NUMBER;" + senderBankAccount.getBankAccountNumber() + ";123;1;Zły numer",
+                        "5;NOT_ENOUGH_MONEY;" + senderBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";500;Za dużo",
+                        "6;UNKNOWN_SENDER_ACCOUNT;" + otherUserBankAccount.getBankAccountNumber() + ";" + receivingBankAccountNumber + ";1;Cudze konto"),
+                Files.readAllLines(importReport.getRejectsFile(), StandardCharsets.UTF_8));
+        assertEquals(9_625L, getBalance(senderBankAccount));
+        assertEquals(10_000L, getBalance(otherUserBankAccount));
+    }
+
+    @Test
+    void importingTheSameFileAgainMakesNoTransfers() throws IOException
+    {
+        Path file = writeFile("przelewy.txt",
+                senderBankAccount.getBankAccountNumber() + receivingBankAccountNumber + String.format("%15s", "3.00") + "Tytuł; ze średnikiem",
+                senderBankAccount.getBankAccountNumber() + receivingBankAccountNumber + String.format("%15s", "1.00") + "Drugi przelew");
+
+        ImportReport firstImport = transferService.importTransfers(file, user.getId());
+        ImportReport secondImport = transferService.importTransfers(file, user.getId());
+
+        assertEquals(2, firstImport.getMadeTransfers());
+        assertEquals(0, secondImport.getMadeTransfers());
+        assertEquals(2, secondImport.getDuplicates());
+        assertEquals(0, secondImport.getRejects());
+        assertEquals(9_600L, getBalance(senderBankAccount));
+        assertEquals(2, transferRepository.findByReceivingBankAccountNumber(receivingBankAccountNumber).size());
+        assertTrue(transferRepository.findByReceivingBankAccountNumber(receivingBankAccountNumber).stream().anyMatch(transfer -> transfer.getTitle().equals("Tytuł; ze średnikiem")));
+    }
+
+    private Path writeFile(String fileName, String... lines) throws IOException
+    {
+        return Files.write(directory.resolve(fileName), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    private long getBalance(BankAccount bankAccount)
+    {
+        return bankAccountRepository.findByBankAccountNumber(bankAccount.getBankAccountNumber()).orElseThrow().getBalance();
+    }
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestData testData;
+
+    @TempDir
+    private Path directory;
+
+    private User user;
+
+    private BankAccount senderBankAccount;
+
+    private BankAccount otherUserBankAccount;
+
+    private String receivingBankAccountNumber;
+}
@@ -0,0 +1,85 @@
+package com.ciosmak.bankapp.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowTests
+{
+    @Test
+    void countLimitIsReachedWithinTheWindow()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 3, 1_000_000L);
+        for (int i = 0; i < 3; ++i)
+        {
+            assertFalse(slidingWindow.isExceededBy(100L, START + i * 1000L, true));
+            slidingWindow.add(100L, START + i * 1000L);
+        }
+        assertTrue(slidingWindow.isExceededBy(100L, START + 59_999L, true));
+        assertFalse(slidingWindow.isExceededBy(100L, START + 59_999L, false));
+    }
+
+    @Test
+    void amountLimitIsReachedWithinTheWindow()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 100, 10_000L);
+        slidingWindow.add(9_000L, START);
+        assertFalse(slidingWindow.isExceededBy(1_000L, START + 1000L, true));
+        assertTrue(slidingWindow.isExceededBy(1_001L, START + 1000L, true));
+        assertTrue(slidingWindow.isExceededBy(1_001L, START + 1000L, false));
+    }
+
+    @Test
+    void bucketsLeaveTheWindowOneByOne()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 2, 1_000_000L);
+        slidingWindow.add(100L, START);
+        slidingWindow.add(100L, START + 10_000L);
+        assertTrue(slidingWindow.isExceededBy(100L, START + 59_999L, true));
+        assertFalse(slidingWindow.isExceededBy(100L, START + 60_000L, true));
+        slidingWindow.add(100L, START + 60_000L);
+        assertTrue(slidingWindow.isExceededBy(100L, START + 69_999L, true));
+        assertFalse(slidingWindow.isExceededBy(100L, START + 70_000L, true));
+    }
+
+    @Test
+    void windowIsEmptyAfterAllBucketsExpire()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(24, 3_600_000L, 10, 1_000_000L);
+        slidingWindow.add(100L, START);
+        assertFalse(slidingWindow.isEmpty(START + 23 * 3_600_000L));
+        assertTrue(slidingWindow.isEmpty(START + 24 * 3_600_000L));
+        assertTrue(slidingWindow.isEmpty(START + 1000 * 3_600_000L));
+    }
+
+    @Test
+    void removedTransferFreesTheWindow()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 1, 1_000_000L);
+        slidingWindow.add(100L, START);
+        assertTrue(slidingWindow.isExceededBy(100L, START + 1000L, true));
+        slidingWindow.remove(100L, START);
+        assertFalse(slidingWindow.isExceededBy(100L, START + 1000L, true));
+        assertTrue(slidingWindow.isEmpty(START + 1000L));
+    }
+
+    @Test
+    void removingAnExpiredTransferChangesNothing()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 1, 1_000_000L);
+        slidingWindow.add(100L, START);
+        slidingWindow.add(100L, START + 60_000L);
+        slidingWindow.remove(100L, START);
+        assertTrue(slidingWindow.isExceededBy(100L, START + 60_000L, true));
+    }
+
+    @Test
+    void clockGoingBackLeavesTheWindowAsItIs()
+    {
+        SlidingWindow slidingWindow = new SlidingWindow(60, 1000L, 1, 1_000_000L);
+        slidingWindow.add(100L, START + 5000L);
+        assertTrue(slidingWindow.isExceededBy(100L, START, true));
+    }
+
+    private static final long START = 1_000_000_000L;
+}
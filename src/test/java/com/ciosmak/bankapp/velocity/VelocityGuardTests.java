@@ -0,0 +1,86 @@
+package com.ciosmak.bankapp.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityGuardTests
+{
+    @Test
+    void transferOverTheMinuteCountIsRejected()
+    {
+        VelocityGuard velocityGuard = newVelocityGuard(VelocityMode.REJECT);
+        for (int i = 0; i < 3; ++i)
+        {
+            assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserve(SENDER, 100L, START + i));
+        }
+        assertEquals(VelocityVerdict.REJECTED, velocityGuard.reserve(SENDER, 100L, START + 3));
+        assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserve(OTHER_SENDER, 100L, START + 3));
+        assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserve(SENDER, 100L, START + 60_000L));
+    }
+
+    @Test
+    void transferOverTheLimitIsOnlyFlaggedInFlagMode()
+    {
+        VelocityGuard velocityGuard = newVelocityGuard(VelocityMode.FLAG);
+        for (int i = 0; i < 3; ++i)
+        {
+            velocityGuard.reserve(SENDER, 100L, START);
+        }
+        assertEquals(VelocityVerdict.FLAGGED, velocityGuard.reserve(SENDER, 100L, START));
+        assertEquals(VelocityVerdict.FLAGGED, velocityGuard.reserve(SENDER, 100L, START));
+    }
+
+    @Test
+    void releasingAReservationAfterARejectionFreesTheLimit()
+    {
+        VelocityGuard velocityGuard = newVelocityGuard(VelocityMode.REJECT);
+        for (int i = 0; i < 3; ++i)
+        {
+            velocityGuard.reserve(SENDER, 100L, START + i);
+        }
+        assertEquals(VelocityVerdict.REJECTED, velocityGuard.reserve(SENDER, 100L, START + 10));
+        velocityGuard.release(SENDER, 100L, START + 1);
+        assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserve(SENDER, 100L, START + 10));
+        assertEquals(VelocityVerdict.REJECTED, velocityGuard.reserve(SENDER, 100L, START + 11));
+    }
+
+    @Test
+    void batchTransfersAreCheckedOnlyAgainstTheAmounts()
+    {
+        VelocityGuard velocityGuard = newVelocityGuard(VelocityMode.REJECT);
+        for (int i = 0; i < 10; ++i)
+        {
+            assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserveAmount(SENDER, 1_000L, START));
+        }
+        assertEquals(VelocityVerdict.REJECTED, velocityGuard.reserveAmount(SENDER, 1L, START));
+        assertEquals(VelocityVerdict.REJECTED, velocityGuard.reserve(SENDER, 1L, START + 60_000L));
+    }
+
+    @Test
+    void idleAccountsAreEvicted()
+    {
+        VelocityGuard velocityGuard = newVelocityGuard(VelocityMode.REJECT);
+        long now = System.currentTimeMillis();
+        velocityGuard.reserve(SENDER, 100L, now - 25 * 3_600_000L);
+        velocityGuard.reserve(OTHER_SENDER, 100L, now);
+        assertEquals(2, velocityGuard.getNumberOfAccounts());
+        velocityGuard.evictIdleAccounts();
+        assertEquals(1, velocityGuard.getNumberOfAccounts());
+        assertEquals(VelocityVerdict.ALLOWED, velocityGuard.reserve(SENDER, 100L, now));
+        assertEquals(2, velocityGuard.getNumberOfAccounts());
+    }
+
+    private static VelocityGuard newVelocityGuard(VelocityMode mode)
+    {
+        return new VelocityGuard(mode, 3, new BigDecimal("100.00"), 5, new BigDecimal("150.00"), 100, new BigDecimal("1000.00"));
+    }
+
+    private static final String SENDER = "11111111111111111111111111";
+
+    private static final String OTHER_SENDER = "22222222222222222222222222";
+
+    private static final long START = 1_000_000_000L;
+}